@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.benchmark;
+
+import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.disk.DiskFileSystem;
+import org.juzu.impl.utils.Tools;
+import org.juzu.test.CompilerHelper;
+import org.juzu.test.DIImplementation;
+import org.juzu.test.request.MockApplication;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The fixtures shared by the benchmarks, they reuse the applications of the core test suite and the booking
+ * templates located with the <code>juzu.test.resources</code> and <code>juzu.booking.templates</code> system
+ * properties.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class Benchmarks
+{
+
+   public static File getTestResources()
+   {
+      return getDirectory("juzu.test.resources", "core/src/test/resources");
+   }
+
+   public static File getBookingTemplates()
+   {
+      return getDirectory("juzu.booking.templates", "booking/src/main/java/org/sample/booking/templates");
+   }
+
+   private static File getDirectory(String property, String defaultPath)
+   {
+      String path = System.getProperty(property);
+      File dir = path != null ? new File(path) : new File(new File(System.getProperty("user.dir")).getParentFile(), defaultPath);
+      if (!dir.isDirectory())
+      {
+         throw new IllegalStateException("Directory " + dir.getAbsolutePath() + " does not exist, it can be configured " +
+            "with the " + property + " system property");
+      }
+      return dir;
+   }
+
+   /**
+    * Compile a package of the core test resources.
+    *
+    * @param packageName the package name
+    * @return the compiler helper
+    * @throws IOException any io exception
+    */
+   public static CompilerHelper<File, File> compile(String... packageName) throws IOException
+   {
+      String path = System.getProperty("juzu.benchmark.work");
+      File work = path != null ? new File(path) : new File(System.getProperty("java.io.tmpdir"), "juzu-benchmark");
+      File dir = new File(work, Tools.join('.', packageName) + "-" + System.nanoTime());
+      File sourcePathDir = new File(dir, "source-path");
+      File sourceOutputDir = new File(dir, "source-output");
+      File classOutputDir = new File(dir, "class-output");
+      if (!sourcePathDir.mkdirs() || !sourceOutputDir.mkdirs() || !classOutputDir.mkdirs())
+      {
+         throw new IOException("Could not create work directory " + dir.getAbsolutePath());
+      }
+
+      //
+      DiskFileSystem sourcePath = new DiskFileSystem(sourcePathDir);
+      ReadFileSystem.copy(new DiskFileSystem(getTestResources(), packageName), sourcePath);
+      CompilerHelper<File, File> helper = new CompilerHelper<File, File>(
+         sourcePath,
+         new DiskFileSystem(sourceOutputDir),
+         new DiskFileSystem(classOutputDir));
+      helper.assertCompile();
+      return helper;
+   }
+
+   /**
+    * Compile and start an application of the core test resources.
+    *
+    * @param di the inject implementation
+    * @param packageName the application package name
+    * @return the started application
+    * @throws Exception any exception
+    */
+   public static MockApplication<?> application(DIImplementation di, String... packageName) throws Exception
+   {
+      return compile(packageName).application(di.bootstrap()).init();
+   }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.benchmark;
+
+import org.juzu.impl.application.ControllerResolver;
+import org.juzu.metadata.ApplicationDescriptor;
+import org.juzu.metadata.ControllerMethod;
+import org.juzu.request.Phase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the controller dispatch performed by the {@link ControllerResolver}.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark
+{
+
+   /** . */
+   private ControllerResolver resolver;
+
+   /** . */
+   private String methodId;
+
+   @Setup
+   public void setUp() throws Exception
+   {
+      Class<?> applicationClass = Benchmarks.
+         compile("application", "resolver", "default_controller").
+         assertClass("application.resolver.default_controller.Default_controllerApplication");
+      ApplicationDescriptor descriptor = (ApplicationDescriptor)applicationClass.getField("DESCRIPTOR").get(null);
+      resolver = new ControllerResolver(descriptor);
+      methodId = descriptor.getControllerMethods().get(descriptor.getControllerMethods().size() - 1).getId();
+   }
+
+   @Benchmark
+   public ControllerMethod resolveDefault()
+   {
+      return resolver.resolve(Phase.RENDER, null);
+   }
+
+   @Benchmark
+   public ControllerMethod resolveById()
+   {
+      return resolver.resolve(Phase.RENDER, methodId);
+   }
+}
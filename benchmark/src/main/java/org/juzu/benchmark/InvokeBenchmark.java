@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.benchmark;
+
+import org.juzu.test.DIImplementation;
+import org.juzu.test.request.MockClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure a render request end to end for each inject implementation: the request goes through the
+ * mock bridge, the controller is dispatched and invoked and its template resolves a request scoped bean.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InvokeBenchmark
+{
+
+   /** . */
+   @Param({"CDI_WELD", "INJECT_GUICE", "INJECT_SPRING"})
+   public DIImplementation di;
+
+   /** . */
+   private MockClient client;
+
+   @Setup
+   public void setUp() throws Exception
+   {
+      client = Benchmarks.application(di, "template", "el").client();
+      if (!"A".equals(render()))
+      {
+         throw new IllegalStateException("Unexpected render");
+      }
+   }
+
+   @Benchmark
+   public String render() throws Exception
+   {
+      return client.render().getContent();
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.benchmark;
+
+import org.juzu.impl.utils.JSON;
+import org.juzu.impl.utils.Tools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.script.Bindings;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.SimpleBindings;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measure {@link JSON#parse(String)} against the script engine based parser it replaced, the baseline is only
+ * available when the JVM provides a JavaScript engine.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JSONBenchmark
+{
+
+   /** A document similar to the <code>config.json</code> generated for an application. */
+   private static final String CONFIG =
+      "{\"controllers\":[\"foo.A_\",\"foo.B_\"],\"templates\":[\"foo.templates.index\",\"foo.templates.show\"]}";
+
+   /** . */
+   @Param({"config", "large"})
+   public String document;
+
+   /** . */
+   private String json;
+
+   @Setup
+   public void setUp()
+   {
+      if ("config".equals(document))
+      {
+         json = CONFIG;
+      }
+      else
+      {
+         StringBuilder sb = new StringBuilder("{");
+         for (int i = 0;i < 100;i++)
+         {
+            if (i > 0)
+            {
+               sb.append(',');
+            }
+            sb.append("\"entry").append(i).append("\":{\"name\":\"value").append(i).
+               append("\",\"enabled\":true,\"values\":[\"a\",\"b\",\"c\"]}");
+         }
+         json = sb.append('}').toString();
+      }
+   }
+
+   @Benchmark
+   public Object parse()
+   {
+      return JSON.parse(json);
+   }
+
+   @State(Scope.Benchmark)
+   public static class Engine
+   {
+
+      /** . */
+      private ScriptEngine engine;
+
+      @Setup
+      public void setUp() throws Exception
+      {
+         ScriptEngine engine = new ScriptEngineManager().getEngineByName("JavaScript");
+         if (engine == null)
+         {
+            throw new IllegalStateException("No JavaScript engine available for the baseline");
+         }
+         engine.eval(Tools.read(JSONBenchmark.class.getResource("json.js")));
+         this.engine = engine;
+      }
+   }
+
+   @Benchmark
+   public Object parseScriptEngine(Engine engine) throws Exception
+   {
+      Bindings bindings = new SimpleBindings();
+      String eval = "var tmp = (" + json + ");var o = new java.util.concurrent.atomic.AtomicReference(tmp.toJava());";
+      engine.engine.eval(eval, bindings);
+      return ((AtomicReference)bindings.get("o")).get();
+   }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.benchmark;
+
+import org.juzu.impl.compiler.CompilationException;
+import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.impl.spi.template.gtmpl.GroovyTemplateEmitter;
+import org.juzu.impl.template.ASTNode;
+import org.juzu.impl.template.compiler.EmitContext;
+import org.juzu.impl.template.compiler.EmitPhase;
+import org.juzu.impl.template.compiler.ProcessContext;
+import org.juzu.impl.template.compiler.ProcessPhase;
+import org.juzu.impl.template.compiler.Template;
+import org.juzu.impl.utils.FQN;
+import org.juzu.impl.utils.MethodInvocation;
+import org.juzu.impl.utils.Tools;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.WriterPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render the hotel templates of the booking sample, the templates are compiled once with the template compiler
+ * and the urls are resolved to the {@link #url(Object...)} method so no application is needed. The
+ * {@link #simpleExpressions} parameter compares the simple expressions printed directly with the expressions
+ * interpolated in a GString.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TemplateBenchmark
+{
+
+   public static String url(Object... args)
+   {
+      return "/url";
+   }
+
+   /** . */
+   @Param({"10", "100"})
+   public int size;
+
+   /** . */
+   @Param({"true", "false"})
+   public boolean simpleExpressions;
+
+   /** . */
+   private Map<String, TemplateStub> stubs;
+
+   /** . */
+   private Map<String, Object> listAttributes;
+
+   /** . */
+   private Map<String, Object> showAttributes;
+
+   /** . */
+   private Map<String, Object> beans;
+
+   @Setup
+   public void setUp() throws Exception
+   {
+      final File root = Benchmarks.getBookingTemplates();
+      ProcessPhase process = new ProcessPhase(new ProcessContext()
+      {
+         @Override
+         protected Template resolveTemplate(String originPath, String path)
+         {
+            File f = new File(root, path);
+            if (f.isFile())
+            {
+               try
+               {
+                  String name = path.substring(0, path.lastIndexOf('.')).replace('/', '.');
+                  return new Template(
+                     originPath,
+                     ASTNode.Template.parse(Tools.read(f)),
+                     new FQN("benchmark.templates." + name),
+                     "gtmpl",
+                     path,
+                     f.lastModified()
+                  );
+               }
+               catch (Exception e)
+               {
+                  throw new UnsupportedOperationException("Could not parse template " + path, e);
+               }
+            }
+            else
+            {
+               return null;
+            }
+         }
+      }, new HashMap<String, Template>());
+      process.resolveTemplate("hotels/list.gtmpl");
+      process.resolveTemplate("hotels/show.gtmpl");
+
+      //
+      EmitPhase emit = new EmitPhase(new EmitContext()
+      {
+         @Override
+         public MethodInvocation resolveMethodInvocation(String typeName, String methodName, Map<String, String> parameterMap) throws CompilationException
+         {
+            return new MethodInvocation(TemplateBenchmark.class.getName(), "url", new ArrayList<String>(parameterMap.values()));
+         }
+      });
+      stubs = new HashMap<String, TemplateStub>();
+      for (Template template : process.getTemplates().values())
+      {
+         GroovyTemplateEmitter emitter = new GroovyTemplateEmitter(simpleExpressions);
+         emit.emit(emitter, template.getAST());
+         stubs.put(template.getPath(), emitter.build(template.getFQN().getFullName()));
+      }
+
+      //
+      List<Map<String, Object>> hotels = new ArrayList<Map<String, Object>>();
+      for (int i = 0;i < size;i++)
+      {
+         Map<String, Object> hotel = new HashMap<String, Object>();
+         hotel.put("id", "" + i);
+         hotel.put("name", "Hotel " + i);
+         hotel.put("address", i + " Main Street");
+         hotel.put("city", "Paris");
+         hotel.put("state", "IDF");
+         hotel.put("country", "France");
+         hotel.put("zip", "75000");
+         hotel.put("price", 100 + i);
+         hotels.add(hotel);
+      }
+      listAttributes = new HashMap<String, Object>();
+      listAttributes.put("hotels", hotels);
+      listAttributes.put("page", 0);
+      showAttributes = new HashMap<String, Object>();
+      showAttributes.put("hotel", hotels.get(0));
+
+      //
+      Map<String, Object> login = new HashMap<String, Object>();
+      login.put("connected", true);
+      login.put("userName", "demo");
+      Map<String, Object> flash = new HashMap<String, Object>();
+      flash.put("error", "");
+      flash.put("success", "Booked");
+      beans = new HashMap<String, Object>();
+      beans.put("login", login);
+      beans.put("flash", flash);
+
+      // Compile the scripts
+      renderList();
+      renderShow();
+   }
+
+   @Benchmark
+   public String renderList() throws IOException
+   {
+      return render("hotels/list.gtmpl", listAttributes);
+   }
+
+   @Benchmark
+   public String renderShow() throws IOException
+   {
+      return render("hotels/show.gtmpl", showAttributes);
+   }
+
+   private String render(String path, Map<String, Object> attributes) throws IOException
+   {
+      StringBuilder buffer = new StringBuilder();
+      TemplateRenderContext context = new TemplateRenderContext(stubs.get(path), attributes)
+      {
+         @Override
+         public TemplateStub resolveTemplate(String path)
+         {
+            return stubs.get(path);
+         }
+
+         @Override
+         public Object resolveBean(String expression)
+         {
+            return beans.get(expression);
+         }
+      };
+      context.render(new WriterPrinter(buffer));
+      return buffer.toString();
+   }
+}
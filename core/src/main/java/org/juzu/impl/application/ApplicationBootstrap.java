@@ -132,5 +132,12 @@ public class ApplicationBootstrap
    public void stop()
    {
       // container.stop();
+
+      // Evict the template stubs and release the controllers
+      if (context != null)
+      {
+         context.getTemplates().clear();
+         context.releaseControllers();
+      }
    }
 }
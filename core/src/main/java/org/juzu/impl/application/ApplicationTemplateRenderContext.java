@@ -19,9 +19,12 @@
 
 package org.juzu.impl.application;
 
+import org.juzu.impl.inject.ScopeController;
+import org.juzu.impl.request.Scope;
 import org.juzu.impl.spi.template.TemplateStub;
 import org.juzu.template.TemplateRenderContext;
 
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -29,9 +32,15 @@ import java.util.Map;
 public class ApplicationTemplateRenderContext extends TemplateRenderContext
 {
 
+   /** The session attribute holding the fragments of a session. */
+   private static final String SESSION_FRAGMENTS = FragmentCache.class.getName();
+
    /** . */
    private final InternalApplicationContext applicationContext;
 
+   /** The beans resolved during this rendering. */
+   private HashMap<String, Object> beans;
+
    public ApplicationTemplateRenderContext(InternalApplicationContext applicationContext, TemplateStub stub, Map<String, ?> attributes, Locale locale)
    {
       super(stub, attributes, locale);
@@ -46,9 +55,46 @@ public class ApplicationTemplateRenderContext extends TemplateRenderContext
       return applicationContext.resolveTemplateStub(path);
    }
 
+   @Override
+   public FragmentCache resolveFragmentCache(String scope)
+   {
+      if ("application".equals(scope))
+      {
+         return applicationContext.getFragments();
+      }
+      else if ("session".equals(scope))
+      {
+         ScopeController controller = ScopeController.INSTANCE;
+         if (controller.isActive(Scope.SESSION))
+         {
+            FragmentCache fragments = (FragmentCache)controller.get(Scope.SESSION, SESSION_FRAGMENTS);
+            if (fragments == null)
+            {
+               fragments = new FragmentCache();
+               controller.put(Scope.SESSION, SESSION_FRAGMENTS, fragments);
+            }
+            return fragments;
+         }
+      }
+      return null;
+   }
+
    @Override
    public Object resolveBean(String name) throws ApplicationException
    {
-      return applicationContext.resolveBean(name);
+      Object bean = beans != null ? beans.get(name) : null;
+      if (bean == null)
+      {
+         bean = applicationContext.resolveBean(name);
+         if (bean != null)
+         {
+            if (beans == null)
+            {
+               beans = new HashMap<String, Object>();
+            }
+            beans.put(name, bean);
+         }
+      }
+      return bean;
    }
 }
@@ -24,22 +24,28 @@ import org.juzu.request.Phase;
 import org.juzu.metadata.ApplicationDescriptor;
 import org.juzu.metadata.ControllerMethod;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Resolves a controller for a given input.
+ * Resolves a controller for a given input. The resolution state is computed once when the resolver is created:
+ * an index of the controller methods by id and the default method of each phase, so resolving a method does not
+ * depend on the number of controller methods of the application.
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
 public class ControllerResolver
 {
 
-   /** . */
-   private final List<ControllerMethod> methods;
+   /** The name of the default render method. */
+   private static final String DEFAULT_RENDER_METHOD_NAME = "index";
 
    /** . */
-   private final ApplicationDescriptor desc;
+   private final Map<String, ControllerMethod> methodsById;
+
+   /** The default method of each phase indexed by phase ordinal, null when a phase has no default method. */
+   private final DefaultMethod[] defaultMethods;
 
    public ControllerResolver(ApplicationDescriptor desc) throws NullPointerException
    {
@@ -49,117 +55,83 @@ public class ControllerResolver
       }
 
       //
-      this.desc = desc;
-      this.methods = desc.getControllerMethods();
-   }
-
-   private class Foo implements Comparable<Foo>
-   {
-      int score;
-      ControllerMethod m;
-      private Foo(ControllerMethod m)
-      {
-         this.score = m.getArgumentParameters().size() + (m.getType() == desc.getDefaultController() ? 0 : 1000);
-         this.m = m;
-      }
-      public int compareTo(Foo o)
+      HashMap<String, ControllerMethod> methodsById = new HashMap<String, ControllerMethod>();
+      for (ControllerMethod method : desc.getControllerMethods())
       {
-         return score - o.score;
+         methodsById.put(method.getId(), method);
       }
-   }
-
-   public ControllerMethod resolve(Phase phase, String methodId) throws AmbiguousResolutionException
-   {
-      ControllerMethod found = null;
 
       //
-      if (methodId != null)
+      DefaultMethod[] defaultMethods = new DefaultMethod[Phase.values().length];
+      for (ControllerMethod method : desc.getControllerMethods())
       {
-         for (ControllerMethod method : methods)
+         if (method.getPhase() == Phase.RENDER && method.getName().equals(DEFAULT_RENDER_METHOD_NAME))
          {
-            if (method.getId().equals(methodId))
+            int score = method.getArgumentParameters().size() + (method.getType() == desc.getDefaultController() ? 0 : 1000);
+            int ordinal = method.getPhase().ordinal();
+            DefaultMethod current = defaultMethods[ordinal];
+            if (current == null || score < current.score)
             {
-               found = method;
-               break;
+               defaultMethods[ordinal] = new DefaultMethod(method, score);
             }
-         }
-      }
-      else if (phase == Phase.RENDER)
-      {
-         List<Foo> matches = new ArrayList<Foo>();
-
-         // Collect all index matches
-         for (ControllerMethod method : methods)
-         {
-            if (method.getPhase() == Phase.RENDER && method.getName().equals("index"))
-            {
-               matches.add(new Foo(method));
-            }
-         }
-
-         //
-         int size = matches.size();
-         if (size > 0)
-         {
-            if (size > 1)
+            else if (score == current.score)
             {
-               Foo first = matches.get(0);
-               Foo second = matches.get(1);
-               if (first.score == second.score)
+               if (current.ambiguity == null)
                {
-                  // WE SHOULD NOT HAVE METHOD THAT RESOLVES TO AN AMBIGUITY AND WE CAN ENFORCE
-                  // THAT AT COMPILE TIME.
-                  // FOR INSTANCE WE COULD USE THE METHOD_ID AS WAY TO FIND THE METHOD
-                  // AND ENSURE THAT THE INDEX IS UNIQUE FOR A SINGLER APPLICATION
-                  // HAVING THE METHOD NAME AS METHOD ID WOULD HELP HOWEVER WE COULD HAVE TWO
-                  // CONTROLLER HAVING SAME IDS
-                  throw new AmbiguousResolutionException("Two methods satisfies the index criteria: " +
-                     first.m + " and " + second.m);
+                  current.ambiguity = "Two methods satisfies the index criteria: " + current.method + " and " + method;
                }
             }
-            found = matches.get(0).m;
          }
       }
 
       //
-      return found;
+      this.methodsById = Collections.unmodifiableMap(methodsById);
+      this.defaultMethods = defaultMethods;
    }
 
-   private int getScore(ControllerMethod m)
+   /**
+    * The default method of a phase, an ambiguity is detected once and reported each time the method is resolved.
+    */
+   private static class DefaultMethod
    {
-      return m.getArgumentParameters().size() + (m.getType() == desc.getDefaultController() ? 0 : 1000);
-   }
 
-/*
-         if (m1.getType() != desc.getDefaultController())
-         {
-            if (m2.getType() == desc.getDefaultController())
-            {
-               return -1;
-            }
-         }
-         else
-         {
-            if (m2.getType() != desc.getDefaultController())
-            {
-               return 1;
-            }
-         }
+      /** . */
+      private final ControllerMethod method;
 
-         //
-         int s1 = m1.getArgumentParameters().size();
-         int s2 = m1.getArgumentParameters().size();
-         if (s1 == s2)
+      /** . */
+      private final int score;
+
+      /** . */
+      private String ambiguity;
+
+      private DefaultMethod(ControllerMethod method, int score)
+      {
+         this.method = method;
+         this.score = score;
+      }
+   }
+
+   public ControllerMethod resolve(Phase phase, String methodId) throws AmbiguousResolutionException
+   {
+      if (methodId != null)
+      {
+         return methodsById.get(methodId);
+      }
+      else
+      {
+         DefaultMethod defaultMethod = defaultMethods[phase.ordinal()];
+         if (defaultMethod == null)
          {
-            return 0;
+            return null;
          }
-         else if (s1 < s2)
+         else if (defaultMethod.ambiguity != null)
          {
-            return 1;
+            throw new AmbiguousResolutionException(defaultMethod.ambiguity);
          }
          else
          {
-            return s2;
+            return defaultMethod.method;
          }
-*/
+      }
+   }
 }
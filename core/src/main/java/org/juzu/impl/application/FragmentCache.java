@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.text.CharArray;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of rendered template fragments keyed by the fragment key. The least recently used fragment is
+ * evicted when the cache is full and a fragment is evicted when its time to live expires. The fragments are kept
+ * as {@link CharArray} so they are replayed with their pre encoded bytes.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class FragmentCache
+{
+
+   /** The default maximum number of fragments. */
+   public static final int DEFAULT_MAX_SIZE = 256;
+
+   /** . */
+   private final int maxSize;
+
+   /** . */
+   private final LinkedHashMap<String, Entry> entries;
+
+   /** . */
+   private final AtomicLong hits;
+
+   /** . */
+   private final AtomicLong misses;
+
+   /** . */
+   private final AtomicLong evictions;
+
+   public FragmentCache()
+   {
+      this(DEFAULT_MAX_SIZE);
+   }
+
+   public FragmentCache(final int maxSize) throws IllegalArgumentException
+   {
+      if (maxSize < 1)
+      {
+         throw new IllegalArgumentException("Max size " + maxSize + " must be greater than zero");
+      }
+
+      //
+      this.maxSize = maxSize;
+      this.hits = new AtomicLong();
+      this.misses = new AtomicLong();
+      this.evictions = new AtomicLong();
+      this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, FragmentCache.Entry> eldest)
+         {
+            if (size() > maxSize)
+            {
+               evictions.incrementAndGet();
+               return true;
+            }
+            else
+            {
+               return false;
+            }
+         }
+      };
+   }
+
+   /**
+    * Returns the fragment for the specified key.
+    *
+    * @param key the fragment key
+    * @return the fragment or null if it is not cached or has expired
+    * @throws NullPointerException if the key is null
+    */
+   public CharArray get(String key) throws NullPointerException
+   {
+      if (key == null)
+      {
+         throw new NullPointerException("No null key accepted");
+      }
+
+      //
+      Entry entry;
+      synchronized (entries)
+      {
+         entry = entries.get(key);
+         if (entry != null && entry.expiresAt < System.currentTimeMillis())
+         {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            entry = null;
+         }
+      }
+
+      //
+      if (entry != null)
+      {
+         hits.incrementAndGet();
+         return entry.fragment;
+      }
+      else
+      {
+         misses.incrementAndGet();
+         return null;
+      }
+   }
+
+   /**
+    * Caches a fragment.
+    *
+    * @param key the fragment key
+    * @param fragment the fragment
+    * @param ttl the time to live in milliseconds, zero means that the fragment does not expire
+    * @throws NullPointerException if the key or the fragment is null
+    * @throws IllegalArgumentException if the time to live is negative
+    */
+   public void put(String key, CharArray fragment, long ttl) throws NullPointerException, IllegalArgumentException
+   {
+      if (key == null)
+      {
+         throw new NullPointerException("No null key accepted");
+      }
+      if (fragment == null)
+      {
+         throw new NullPointerException("No null fragment accepted");
+      }
+      if (ttl < 0)
+      {
+         throw new IllegalArgumentException("Time to live " + ttl + " must not be negative");
+      }
+
+      //
+      Entry entry = new Entry(fragment, ttl == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttl);
+      synchronized (entries)
+      {
+         entries.put(key, entry);
+      }
+   }
+
+   /**
+    * Evict all the cached fragments.
+    */
+   public void clear()
+   {
+      synchronized (entries)
+      {
+         entries.clear();
+      }
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize;
+   }
+
+   public int getSize()
+   {
+      synchronized (entries)
+      {
+         return entries.size();
+      }
+   }
+
+   public long getHitCount()
+   {
+      return hits.get();
+   }
+
+   public long getMissCount()
+   {
+      return misses.get();
+   }
+
+   public long getEvictionCount()
+   {
+      return evictions.get();
+   }
+
+   @Override
+   public String toString()
+   {
+      return "FragmentCache[size=" + getSize() + ",maxSize=" + maxSize + ",hits=" + hits.get() + ",misses=" +
+         misses.get() + ",evictions=" + evictions.get() + "]";
+   }
+
+   private static class Entry
+   {
+
+      /** . */
+      private final CharArray fragment;
+
+      /** . */
+      private final long expiresAt;
+
+      private Entry(CharArray fragment, long expiresAt)
+      {
+         this.fragment = fragment;
+         this.expiresAt = expiresAt;
+      }
+   }
+}
@@ -31,24 +31,27 @@ import org.juzu.impl.request.Request;
 import org.juzu.impl.spi.request.RequestBridge;
 import org.juzu.impl.spi.request.ResourceBridge;
 import org.juzu.metadata.ApplicationDescriptor;
+import org.juzu.metadata.ControllerInvoker;
 import org.juzu.metadata.ControllerMethod;
 import org.juzu.metadata.ControllerParameter;
 import org.juzu.request.ApplicationContext;
 import org.juzu.request.RequestContext;
 import org.juzu.impl.spi.template.TemplateStub;
-import org.juzu.impl.utils.Spliterator;
 import org.juzu.template.Template;
 import org.juzu.template.TemplateRenderContext;
 
+import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 @Export
@@ -70,6 +73,18 @@ public class InternalApplicationContext extends ApplicationContext
    /** . */
    private final ControllerResolver controllerResolver;
 
+   /** . */
+   private final TemplateStubCache templates;
+
+   /** The rendered fragments shared by the whole application. */
+   private final FragmentCache fragments;
+
+   /** The names that are known to not be beans, the beans of an application do not change after it is booted. */
+   private final ConcurrentHashMap<String, Boolean> nonBeans;
+
+   /** The controller beans resolved on first use, keyed by controller type. */
+   private final ConcurrentHashMap<Class<?>, ControllerBean> controllers;
+
    /** . */
    static final ThreadLocal<Request> current = new ThreadLocal<Request>();
 
@@ -79,6 +94,10 @@ public class InternalApplicationContext extends ApplicationContext
       this.descriptor = descriptor;
       this.manager = manager;
       this.controllerResolver = new ControllerResolver(descriptor);
+      this.templates = new TemplateStubCache(descriptor.getTemplatesPackageName(), manager.getClassLoader());
+      this.fragments = new FragmentCache();
+      this.nonBeans = new ConcurrentHashMap<String, Boolean>();
+      this.controllers = new ConcurrentHashMap<Class<?>, ControllerBean>();
    }
 
    public ApplicationDescriptor getDescriptor()
@@ -86,6 +105,99 @@ public class InternalApplicationContext extends ApplicationContext
       return descriptor;
    }
 
+   /**
+    * The bean of a controller resolved once, the reference is cached for singleton controllers.
+    */
+   private static class ControllerBean
+   {
+
+      /** . */
+      private final Object bean;
+
+      /** . */
+      private final Object instance;
+
+      /** . */
+      private final Object reference;
+
+      private ControllerBean(Object bean, Object instance, Object reference)
+      {
+         this.bean = bean;
+         this.instance = instance;
+         this.reference = reference;
+      }
+   }
+
+   /**
+    * Resolve the bean of a controller the first time it is used and cache it. A controller annotated with
+    * {@link Singleton} or {@link ApplicationScoped} is also created once and its reference is reused until the
+    * application is stopped. This happens during the first request that uses the controller, so the request scope
+    * is active and the context classloader is the application classloader.
+    *
+    * @param manager the inject manager
+    * @param type the controller type
+    * @return the controller bean or null when the type is not a bean
+    * @throws ApplicationException when a singleton controller cannot be created
+    */
+   private <B, I> ControllerBean resolveController(InjectManager<B, I> manager, Class<?> type) throws ApplicationException
+   {
+      ControllerBean controller = controllers.get(type);
+      if (controller == null)
+      {
+         B bean = manager.resolveBean(type);
+         if (bean != null)
+         {
+            I instance = null;
+            Object reference = null;
+            if (type.isAnnotationPresent(Singleton.class) || type.isAnnotationPresent(ApplicationScoped.class))
+            {
+               try
+               {
+                  instance = manager.create(bean);
+                  reference = manager.get(bean, instance);
+               }
+               catch (InvocationTargetException e)
+               {
+                  throw new ApplicationException(e.getCause());
+               }
+            }
+            controller = new ControllerBean(bean, instance, reference);
+            ControllerBean previous = controllers.putIfAbsent(type, controller);
+            if (previous != null)
+            {
+               // Another request created it first
+               if (instance != null)
+               {
+                  manager.release(instance);
+               }
+               controller = previous;
+            }
+         }
+      }
+      return controller;
+   }
+
+   /**
+    * Release the singleton controllers created by the application.
+    */
+   void releaseControllers()
+   {
+      releaseControllers(manager);
+   }
+
+   private <B, I> void releaseControllers(InjectManager<B, I> manager)
+   {
+      for (Iterator<ControllerBean> i = controllers.values().iterator();i.hasNext();)
+      {
+         ControllerBean controller = i.next();
+         i.remove();
+         if (controller.instance != null)
+         {
+            manager.release((I)controller.instance);
+         }
+      }
+   }
+
    public void invoke(RequestBridge bridge) throws ApplicationException
    {
       ClassLoader classLoader = manager.getClassLoader();
@@ -153,8 +265,17 @@ public class InternalApplicationContext extends ApplicationContext
 
    private <B, I> Object resolveBean(InjectManager<B, I> manager, String name) throws ApplicationException
    {
+      if (nonBeans.containsKey(name))
+      {
+         return null;
+      }
       B bean = manager.resolveBean(name);
-      if (bean != null)
+      if (bean == null)
+      {
+         nonBeans.put(name, Boolean.TRUE);
+         return null;
+      }
+      else
       {
          try
          {
@@ -166,10 +287,6 @@ public class InternalApplicationContext extends ApplicationContext
             throw new ApplicationException(e.getCause());
          }
       }
-      else
-      {
-         return null;
-      }
    }
 
    private <B, I> Object doInvoke(InjectManager<B, I> manager, Request request, ControllerMethod method) throws ApplicationException
@@ -196,7 +313,8 @@ public class InternalApplicationContext extends ApplicationContext
       else
       {
          Class<?> type = method.getType();
-         B bean = manager.resolveBean(type);
+         ControllerBean controller = resolveController(manager, type);
+         B bean = controller != null ? (B)controller.bean : null;
 
          if (bean != null)
          {
@@ -204,17 +322,25 @@ public class InternalApplicationContext extends ApplicationContext
             try
             {
                Object o;
-               try
+               if (controller != null && controller.reference != null)
                {
-                  // Get the bean
-                  instance = manager.create(bean);
-
-                  // Get a reference
-                  o = manager.get(bean, instance);
+                  // Use the singleton reference
+                  o = controller.reference;
                }
-               catch (InvocationTargetException e)
+               else
                {
-                  throw new ApplicationException(e.getCause());
+                  try
+                  {
+                     // Get the bean
+                     instance = manager.create(bean);
+
+                     // Get a reference
+                     o = manager.get(bean, instance);
+                  }
+                  catch (InvocationTargetException e)
+                  {
+                     throw new ApplicationException(e.getCause());
+                  }
                }
 
                // Begin request callback
@@ -224,10 +350,17 @@ public class InternalApplicationContext extends ApplicationContext
                }
                
                // Invoke method on controller
-               Object[] args = getArgs(context);
+               ControllerInvoker invoker = method.getInvoker();
                try
                {
-                  return method.getMethod().invoke(o, args);
+                  if (invoker != null)
+                  {
+                     return invoker.invoke(o, context.getParameters());
+                  }
+                  else
+                  {
+                     return method.getMethod().invoke(o, getArgs(context));
+                  }
                }
                catch (InvocationTargetException e)
                {
@@ -308,27 +441,17 @@ public class InternalApplicationContext extends ApplicationContext
 
    public TemplateStub resolveTemplateStub(String path)
    {
-      try
-      {
-         StringBuilder id = new StringBuilder(descriptor.getTemplatesPackageName());
-         String relativePath = path.substring(0, path.indexOf('.'));
-         for (String name : Spliterator.split(relativePath, '/'))
-         {
-            if (id.length() > 0)
-            {
-               id.append('.');
-            }
-            id.append(name);
-         }
-         id.append("_");
-         ClassLoader cl = manager.getClassLoader();
-         Class<?> stubClass = cl.loadClass(id.toString());
-         return(TemplateStub)stubClass.newInstance();
-      }
-      catch (Exception e)
-      {
-         throw new UnsupportedOperationException("handle me gracefully", e);
-      }
+      return templates.get(path);
+   }
+
+   public TemplateStubCache getTemplates()
+   {
+      return templates;
+   }
+
+   public FragmentCache getFragments()
+   {
+      return fragments;
    }
 
    @Override
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.impl.utils.Spliterator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An application wide cache of the template stubs keyed by template path. A stub is resolved and instantiated
+ * once and is then shared by all the request threads, the concurrent map provides the safe publication of the
+ * stub instance. The cache lives as long as the application and is evicted when the application is redeployed.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TemplateStubCache
+{
+
+   /** . */
+   private final String templatesPackageName;
+
+   /** . */
+   private final ClassLoader classLoader;
+
+   /** . */
+   private final ConcurrentMap<String, TemplateStub> stubs;
+
+   /** . */
+   private final AtomicLong hits;
+
+   /** . */
+   private final AtomicLong misses;
+
+   public TemplateStubCache(String templatesPackageName, ClassLoader classLoader) throws NullPointerException
+   {
+      if (templatesPackageName == null)
+      {
+         throw new NullPointerException("No null templates package name accepted");
+      }
+      if (classLoader == null)
+      {
+         throw new NullPointerException("No null class loader accepted");
+      }
+
+      //
+      this.templatesPackageName = templatesPackageName;
+      this.classLoader = classLoader;
+      this.stubs = new ConcurrentHashMap<String, TemplateStub>();
+      this.hits = new AtomicLong();
+      this.misses = new AtomicLong();
+   }
+
+   public TemplateStub get(String path)
+   {
+      TemplateStub stub = stubs.get(path);
+      if (stub == null)
+      {
+         misses.incrementAndGet();
+         stub = create(path);
+
+         // Another thread may have been faster than us, in this case we use its stub
+         TemplateStub previous = stubs.putIfAbsent(path, stub);
+         if (previous != null)
+         {
+            stub = previous;
+         }
+      }
+      else
+      {
+         hits.incrementAndGet();
+      }
+      return stub;
+   }
+
+   private TemplateStub create(String path)
+   {
+      try
+      {
+         StringBuilder id = new StringBuilder(templatesPackageName);
+         String relativePath = path.substring(0, path.indexOf('.'));
+         for (String name : Spliterator.split(relativePath, '/'))
+         {
+            if (id.length() > 0)
+            {
+               id.append('.');
+            }
+            id.append(name);
+         }
+         id.append("_");
+         Class<?> stubClass = classLoader.loadClass(id.toString());
+         return (TemplateStub)stubClass.newInstance();
+      }
+      catch (Exception e)
+      {
+         throw new UnsupportedOperationException("handle me gracefully", e);
+      }
+   }
+
+   /**
+    * Evict all the cached stubs.
+    */
+   public void clear()
+   {
+      stubs.clear();
+   }
+
+   public int getSize()
+   {
+      return stubs.size();
+   }
+
+   public long getHitCount()
+   {
+      return hits.get();
+   }
+
+   public long getMissCount()
+   {
+      return misses.get();
+   }
+}
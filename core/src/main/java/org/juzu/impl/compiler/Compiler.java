@@ -37,7 +37,6 @@ import javax.tools.Diagnostic;
 import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
-import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -46,9 +45,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.jar.JarFile;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -79,6 +79,12 @@ public class Compiler
       /** . */
       private Processor processor;
 
+      /** . */
+      private CompilerContext context;
+
+      /** . */
+      private final Map<String, String> processorOptions;
+
       private Builder(
          ReadFileSystem<?> sourcePath,
          ReadWriteFileSystem<?> sourceOutput,
@@ -90,6 +96,8 @@ public class Compiler
          this.classOutput = classOutput;
          this.classPaths = classPaths;
          this.processor = null;
+         this.context = null;
+         this.processorOptions = new LinkedHashMap<String, String>();
       }
 
       public Builder classOutput(ReadWriteFileSystem<?> classOutput)
@@ -134,7 +142,7 @@ public class Compiler
             }
             else if (f.isFile() && f.getName().endsWith(".jar"))
             {
-               classPaths.add(new JarFileSystem(new JarFile(f)));
+               classPaths.add(new JarFileSystem(f));
             }
             else
             {
@@ -154,6 +162,18 @@ public class Compiler
          return this;
       }
 
+      public Builder context(CompilerContext context)
+      {
+         this.context = context;
+         return this;
+      }
+
+      public Builder processorOption(String name, String value)
+      {
+         processorOptions.put(name, value);
+         return this;
+      }
+
       public Compiler build()
       {
          if (sourcePath == null)
@@ -169,6 +189,7 @@ public class Compiler
             throw new IllegalStateException("No null source output");
          }
          Compiler compiler = new Compiler(
+            context != null ? context : new CompilerContext(),
             sourcePath,
             classPaths,
             sourceOutput,
@@ -178,6 +199,10 @@ public class Compiler
          {
             compiler.addAnnotationProcessor(processor);
          }
+         for (Map.Entry<String, String> option : processorOptions.entrySet())
+         {
+            compiler.addProcessorOption(option.getKey(), option.getValue());
+         }
          return compiler;
       }
    }
@@ -186,7 +211,7 @@ public class Compiler
    static final Pattern PATTERN = Pattern.compile("\\[" + "([^\\]]+)" + "\\]\\(" + "([^\\)]*)" + "\\)");
 
    /** . */
-   private JavaCompiler compiler;
+   private final CompilerContext context;
 
    /** . */
    private VirtualFileManager fileManager;
@@ -194,6 +219,9 @@ public class Compiler
    /** . */
    private Set<Processor> processors;
 
+   /** The options passed to the annotation processors. */
+   private final Map<String, String> processorOptions;
+
    public Compiler(
       ReadFileSystem<?> sourcePath,
       ReadWriteFileSystem<?> output)
@@ -224,15 +252,32 @@ public class Compiler
       ReadWriteFileSystem<?> sourceOutput,
       ReadWriteFileSystem<?> classOutput)
    {
-      this.compiler = ToolProvider.getSystemJavaCompiler();
+      this(new CompilerContext(), sourcePath, classPath, sourceOutput, classOutput);
+   }
+
+   public Compiler(
+      CompilerContext context,
+      ReadFileSystem<?> sourcePath,
+      Collection<SimpleFileSystem<?>> classPath,
+      ReadWriteFileSystem<?> sourceOutput,
+      ReadWriteFileSystem<?> classOutput)
+   {
+      if (context == null)
+      {
+         throw new NullPointerException("No null context accepted");
+      }
+
+      //
+      this.context = context;
       this.fileManager = new VirtualFileManager(
-         compiler.getStandardFileManager(null, null, null),
+         context,
          sourcePath,
          classPath,
          sourceOutput,
          classOutput
       );
       this.processors = new HashSet<Processor>();
+      this.processorOptions = new LinkedHashMap<String, String>();
    }
 
    public void addAnnotationProcessor(Processor annotationProcessorType)
@@ -244,6 +289,22 @@ public class Compiler
       processors.add(annotationProcessorType);
    }
 
+   /**
+    * Add an option passed to the annotation processors, like the <code>-Aname=value</code> option of javac.
+    *
+    * @param name the option name
+    * @param value the option value or null
+    * @throws NullPointerException if the name is null
+    */
+   public void addProcessorOption(String name, String value) throws NullPointerException
+   {
+      if (name == null)
+      {
+         throw new NullPointerException("No null option name allowed");
+      }
+      processorOptions.put(name, value);
+   }
+
    public ReadWriteFileSystem<Object> getSourceOutput()
    {
       return (ReadWriteFileSystem<Object>)fileManager.sourceOutput.getFileSystem();
@@ -383,20 +444,23 @@ public class Compiler
       };
 
       //
-      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, listener, Collections.<String>emptyList(), null, compilationUnits);
-      task.setProcessors(processors);
-
-      // We don't use the return value because sometime it says it is failed although
-      // it is not, need to investigate this at some piont
-      boolean ok = task.call();
-
-      // Clear caches
-      fileManager.sourceOutput.clearCache();
-      fileManager.classOutput.clearCache();
-      fileManager.sourceOutput.clearCache();
-      if (fileManager.classPath != null)
+      boolean ok;
+      synchronized (context)
       {
-         fileManager.classPath.clearCache();
+         List<String> options = new ArrayList<String>();
+         for (Map.Entry<String, String> option : processorOptions.entrySet())
+         {
+            options.add("-A" + option.getKey() + (option.getValue() != null ? "=" + option.getValue() : ""));
+         }
+         JavaCompiler.CompilationTask task = context.compiler.getTask(null, fileManager, listener, options, null, compilationUnits);
+         task.setProcessors(processors);
+
+         // We don't use the return value because sometime it says it is failed although
+         // it is not, need to investigate this at some piont
+         ok = task.call();
+
+         // Clear caches
+         fileManager.clearCache();
       }
 
       // Clear processors as we should not reuse them
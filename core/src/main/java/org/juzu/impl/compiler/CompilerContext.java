@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.impl.compiler;
+
+import org.juzu.impl.compiler.file.SimpleFileManager;
+import org.juzu.impl.spi.fs.ReadWriteFileSystem;
+import org.juzu.impl.spi.fs.SimpleFileSystem;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The state shared by the compilers created for the same purpose, like the successive compilations of an
+ * application in dev mode. It keeps the java compiler and its standard file manager that indexes the platform
+ * class path. It also keeps the file managers of the read only class path entries such as jars, so their
+ * content is loaded once, until it is explicitly invalidated.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class CompilerContext
+{
+
+   /** . */
+   final JavaCompiler compiler;
+
+   /** . */
+   final StandardJavaFileManager fileManager;
+
+   /** . */
+   private final Map<SimpleFileSystem<?>, SimpleFileManager<?>> classPath;
+
+   public CompilerContext()
+   {
+      this(ToolProvider.getSystemJavaCompiler());
+   }
+
+   public CompilerContext(JavaCompiler compiler) throws NullPointerException
+   {
+      if (compiler == null)
+      {
+         throw new NullPointerException("No null compiler accepted");
+      }
+
+      //
+      this.compiler = compiler;
+      this.fileManager = compiler.getStandardFileManager(null, null, null);
+      this.classPath = new IdentityHashMap<SimpleFileSystem<?>, SimpleFileManager<?>>();
+   }
+
+   /**
+    * Returns the file manager for a class path entry, writable file systems may change between two compilations
+    * and are never shared.
+    *
+    * @param fs the file system
+    * @param <P> the path type
+    * @return the file manager
+    */
+   synchronized <P> SimpleFileManager<P> getClassPath(SimpleFileSystem<P> fs)
+   {
+      if (fs instanceof ReadWriteFileSystem<?>)
+      {
+         return SimpleFileManager.wrap(fs);
+      }
+      else
+      {
+         SimpleFileManager<P> manager = (SimpleFileManager<P>)classPath.get(fs);
+         if (manager == null)
+         {
+            classPath.put(fs, manager = SimpleFileManager.wrap(fs));
+         }
+         return manager;
+      }
+   }
+
+   /**
+    * Invalidate a class path entry, for instance when a jar has changed.
+    *
+    * @param fs the class path entry
+    */
+   public synchronized void invalidate(SimpleFileSystem<?> fs)
+   {
+      SimpleFileManager<?> manager = classPath.remove(fs);
+      if (manager != null)
+      {
+         manager.clearCache();
+      }
+   }
+
+   /**
+    * Invalidate all the class path entries.
+    */
+   public synchronized void invalidate()
+   {
+      for (SimpleFileManager<?> manager : classPath.values())
+      {
+         manager.clearCache();
+      }
+      classPath.clear();
+   }
+
+   public void close() throws IOException
+   {
+      invalidate();
+      fileManager.close();
+   }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.compiler;
+
+import org.juzu.impl.fs.Visitor;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The dependencies between the compilation units of a previous compilation. They are read from the constant pool
+ * of the compiled classes: a unit depends on another unit when one of its classes refers to a class compiled from
+ * the other unit, the unit of a class is given by its <code>SourceFile</code> attribute. The units are designated
+ * by their path, for instance <code>foo/bar/A.java</code>.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class Dependencies
+{
+
+   /** . */
+   private final Map<String, List<RAMPath>> classFiles;
+
+   /** . */
+   private final Map<String, Set<String>> dependents;
+
+   /** . */
+   private final Set<String> constants;
+
+   /**
+    * Read the dependencies of the classes of the specified output.
+    *
+    * @param output the output of the previous compilation
+    * @throws IOException any io exception
+    */
+   public Dependencies(final RAMFileSystem output) throws IOException
+   {
+      final Map<String, List<RAMPath>> classFiles = new HashMap<String, List<RAMPath>>();
+      final Map<String, String> units = new HashMap<String, String>();
+      final Map<String, Set<String>> references = new HashMap<String, Set<String>>();
+      final Set<String> constants = new HashSet<String>();
+
+      //
+      output.traverse(new Visitor.Default<RAMPath>()
+      {
+         public void file(RAMPath file, String name) throws IOException
+         {
+            if (name.endsWith(".class"))
+            {
+               String pkg = output.packageOf(file, '/', new StringBuilder()).toString();
+               String prefix = pkg.length() > 0 ? pkg + "/" : "";
+               ClassFile classFile = new ClassFile(new DataInputStream(output.getContent(file).getInputStream()));
+
+               // Without the source file attribute we assume the unit of the top level class
+               String source = classFile.source;
+               if (source == null)
+               {
+                  int index = name.indexOf('$');
+                  source = (index == -1 ? name.substring(0, name.length() - ".class".length()) : name.substring(0, index)) + ".java";
+               }
+               String unit = prefix + source;
+
+               //
+               List<RAMPath> files = classFiles.get(unit);
+               if (files == null)
+               {
+                  classFiles.put(unit, files = new ArrayList<RAMPath>());
+               }
+               files.add(file);
+               units.put(prefix + name.substring(0, name.length() - ".class".length()), unit);
+               Set<String> unitReferences = references.get(unit);
+               if (unitReferences == null)
+               {
+                  references.put(unit, unitReferences = new HashSet<String>());
+               }
+               unitReferences.addAll(classFile.references);
+               if (classFile.constant)
+               {
+                  constants.add(unit);
+               }
+            }
+         }
+      });
+
+      // Invert the references into the dependents of each unit
+      Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+      for (Map.Entry<String, Set<String>> entry : references.entrySet())
+      {
+         String unit = entry.getKey();
+         for (String reference : entry.getValue())
+         {
+            String referenced = units.get(reference);
+            if (referenced != null && !referenced.equals(unit))
+            {
+               Set<String> set = dependents.get(referenced);
+               if (set == null)
+               {
+                  dependents.put(referenced, set = new HashSet<String>());
+               }
+               set.add(unit);
+            }
+         }
+      }
+
+      //
+      this.classFiles = classFiles;
+      this.dependents = dependents;
+      this.constants = constants;
+   }
+
+   /**
+    * Returns the units to recompile when the specified units change: the changed units and the units depending
+    * transitively on them. Null is returned when a changed unit declares a compile time constant, since the uses
+    * of a constant are inlined they do not appear in the constant pool and the dependent units are unknown.
+    *
+    * @param units the changed units
+    * @return the units to recompile or null
+    */
+   public Set<String> getDependents(Collection<String> units)
+   {
+      Set<String> result = new LinkedHashSet<String>();
+      LinkedList<String> queue = new LinkedList<String>(units);
+      while (queue.size() > 0)
+      {
+         String unit = queue.removeFirst();
+         if (result.add(unit))
+         {
+            if (units.contains(unit) && constants.contains(unit))
+            {
+               return null;
+            }
+            Set<String> set = dependents.get(unit);
+            if (set != null)
+            {
+               queue.addAll(set);
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Removes the classes compiled from the specified units, so the classes that a unit does not declare anymore
+    * do not remain after it is compiled again.
+    *
+    * @param units the units
+    */
+   public void removeClasses(Collection<String> units)
+   {
+      for (String unit : units)
+      {
+         List<RAMPath> files = classFiles.remove(unit);
+         if (files != null)
+         {
+            for (RAMPath file : files)
+            {
+               file.del();
+            }
+         }
+      }
+   }
+
+   /**
+    * The part of a class file we are interested in.
+    */
+   private static class ClassFile
+   {
+
+      /** The internal names of the referenced classes. */
+      private final Set<String> references;
+
+      /** The source file attribute value. */
+      private final String source;
+
+      /** True when the class declares a compile time constant. */
+      private final boolean constant;
+
+      private ClassFile(DataInputStream in) throws IOException
+      {
+         if (in.readInt() != 0xCAFEBABE)
+         {
+            throw new IOException("Not a class file");
+         }
+         in.readUnsignedShort();
+         in.readUnsignedShort();
+
+         // The constant pool
+         int count = in.readUnsignedShort();
+         String[] utf8 = new String[count];
+         int[] classes = new int[count];
+         for (int i = 1;i < count;i++)
+         {
+            int tag = in.readUnsignedByte();
+            switch (tag)
+            {
+               case 1:
+                  utf8[i] = in.readUTF();
+                  break;
+               case 7:
+                  classes[i] = in.readUnsignedShort();
+                  break;
+               case 8:
+               case 16:
+               case 19:
+               case 20:
+                  in.readUnsignedShort();
+                  break;
+               case 15:
+                  in.readUnsignedByte();
+                  in.readUnsignedShort();
+                  break;
+               case 3:
+               case 4:
+               case 9:
+               case 10:
+               case 11:
+               case 12:
+               case 17:
+               case 18:
+                  in.readInt();
+                  break;
+               case 5:
+               case 6:
+                  in.readLong();
+                  i++;
+                  break;
+               default:
+                  throw new IOException("Unknown constant pool tag " + tag);
+            }
+         }
+
+         // The class entries and the types of the descriptors and signatures
+         Set<String> references = new HashSet<String>();
+         for (int i = 1;i < count;i++)
+         {
+            if (classes[i] != 0)
+            {
+               String name = utf8[classes[i]];
+               if (name.startsWith("["))
+               {
+                  addTypes(name, references);
+               }
+               else
+               {
+                  references.add(name);
+               }
+            }
+            else if (utf8[i] != null)
+            {
+               addTypes(utf8[i], references);
+            }
+         }
+
+         //
+         in.readUnsignedShort();
+         in.readUnsignedShort();
+         in.readUnsignedShort();
+         int interfaces = in.readUnsignedShort();
+         for (int i = 0;i < interfaces;i++)
+         {
+            in.readUnsignedShort();
+         }
+
+         // A static final field with a constant value is a compile time constant
+         boolean constant = false;
+         int fields = in.readUnsignedShort();
+         for (int i = 0;i < fields;i++)
+         {
+            int access = in.readUnsignedShort();
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            int attributes = in.readUnsignedShort();
+            for (int j = 0;j < attributes;j++)
+            {
+               String name = utf8[in.readUnsignedShort()];
+               skip(in, in.readInt());
+               if ("ConstantValue".equals(name) && Modifier.isStatic(access) && Modifier.isFinal(access))
+               {
+                  constant = true;
+               }
+            }
+         }
+
+         //
+         int methods = in.readUnsignedShort();
+         for (int i = 0;i < methods;i++)
+         {
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            int attributes = in.readUnsignedShort();
+            for (int j = 0;j < attributes;j++)
+            {
+               in.readUnsignedShort();
+               skip(in, in.readInt());
+            }
+         }
+
+         //
+         String source = null;
+         int attributes = in.readUnsignedShort();
+         for (int i = 0;i < attributes;i++)
+         {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("SourceFile".equals(name))
+            {
+               source = utf8[in.readUnsignedShort()];
+            }
+            else
+            {
+               skip(in, length);
+            }
+         }
+
+         //
+         this.references = references;
+         this.source = source;
+         this.constant = constant;
+      }
+
+      private static void skip(DataInputStream in, int length) throws IOException
+      {
+         while (length > 0)
+         {
+            int skipped = in.skipBytes(length);
+            if (skipped <= 0)
+            {
+               throw new IOException("Truncated class file");
+            }
+            length -= skipped;
+         }
+      }
+
+      /**
+       * Adds the class names of the <code>Lfoo/Bar;</code> types found in a descriptor or in a signature, any
+       * other string may add names that are not classes, it does not matter since only the names of the compiled
+       * classes are retained.
+       *
+       * @param s the string
+       * @param references the references
+       */
+      private static void addTypes(String s, Set<String> references)
+      {
+         int from = 0;
+         while (true)
+         {
+            int start = s.indexOf('L', from);
+            if (start == -1)
+            {
+               break;
+            }
+            int end = start + 1;
+            while (end < s.length() && s.charAt(end) != ';' && s.charAt(end) != '<')
+            {
+               end++;
+            }
+            if (end == s.length())
+            {
+               break;
+            }
+            if (end > start + 1)
+            {
+               references.add(s.substring(start + 1, end));
+            }
+            from = start + 1;
+         }
+      }
+   }
+}
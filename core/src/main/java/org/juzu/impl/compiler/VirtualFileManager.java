@@ -56,22 +56,58 @@ class VirtualFileManager extends ForwardingJavaFileManager<JavaFileManager>
    /** . */
    final SimpleFileManager<?> sourceOutput;
 
+   /** . */
+   private final SimpleFileManager<?>[] classPathComponents;
+
    public VirtualFileManager(
-      JavaFileManager fileManager,
+      CompilerContext context,
       ReadFileSystem<?> sourcePath,
       Collection<SimpleFileSystem<?>> classPath,
       ReadWriteFileSystem<?> sourceOutput,
       ReadWriteFileSystem<?> classOutput)
    {
-      super(fileManager);
+      super(context.fileManager);
+
+      //
+      SimpleFileManager<?>[] classPathComponents = new SimpleFileManager<?>[classPath.size()];
+      int index = 0;
+      for (SimpleFileSystem<?> fs : classPath)
+      {
+         classPathComponents[index++] = context.getClassPath(fs);
+      }
 
       //
       this.sourcePath = safeWrap(sourcePath);
-      this.classPath = new CompositeFileManager(classPath);
+      this.classPathComponents = classPathComponents;
+      this.classPath = new CompositeFileManager(classPathComponents);
       this.classOutput = safeWrap(classOutput);
       this.sourceOutput = safeWrap(sourceOutput);
    }
 
+   /**
+    * Clear the caches after a compilation, the read only class path entries are kept as they are shared
+    * by the compiler context.
+    */
+   void clearCache()
+   {
+      sourcePath.clearCache();
+      sourceOutput.clearCache();
+      classOutput.clearCache();
+      for (SimpleFileManager<?> component : classPathComponents)
+      {
+         if (component.getFileSystem() instanceof ReadWriteFileSystem<?>)
+         {
+            component.clearCache();
+         }
+      }
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+      // The standard file manager belongs to the compiler context
+   }
+
    private <P> SimpleFileManager<P> safeWrap(ReadFileSystem<P> fs)
    {
       return fs != null ? new SimpleFileManager<P>(fs) : null;
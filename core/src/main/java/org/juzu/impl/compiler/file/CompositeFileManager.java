@@ -46,6 +46,11 @@ public class CompositeFileManager extends FileManager
       this.components = components;
    }
 
+   public CompositeFileManager(FileManager... components)
+   {
+      this.components = components.clone();
+   }
+
    @Override
    public JavaFileObject getReadable(FileKey key) throws IOException
    {
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.impl.fs;
+
+import org.juzu.impl.spi.fs.ReadFileSystem;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watch a file system from a background thread and records the detected changes. The changes are consumed
+ * with the {@link #drain()} method, checking whether changes happened is a volatile read only so it can be
+ * done on each request. A failure of the background scan marks the watcher as dirty and is rethrown by the
+ * next drain, since the changes detected until then may be incomplete.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class FileSystemWatcher<P>
+{
+
+   /** . */
+   private static final ThreadFactory factory = new ThreadFactory()
+   {
+      public Thread newThread(Runnable r)
+      {
+         Thread thread = new Thread(r, "juzu-watcher");
+         thread.setDaemon(true);
+         return thread;
+      }
+   };
+
+   /** . */
+   private final FileSystemScanner<P> scanner;
+
+   /** . */
+   private final ConcurrentHashMap<String, Change> changes;
+
+   /** . */
+   private volatile boolean dirty;
+
+   /** The failure of the background scan not yet reported by a drain. */
+   private volatile IOException failure;
+
+   /** . */
+   private ScheduledExecutorService executor;
+
+   public FileSystemWatcher(ReadFileSystem<P> fs) throws NullPointerException
+   {
+      if (fs == null)
+      {
+         throw new NullPointerException("No null file system accepted");
+      }
+
+      //
+      this.scanner = new FileSystemScanner<P>(fs);
+      this.changes = new ConcurrentHashMap<String, Change>();
+      this.dirty = false;
+   }
+
+   /**
+    * Take a snapshot of the file system and start to watch it.
+    *
+    * @param period the period between two checks in milliseconds
+    * @throws IOException any io exception
+    * @throws IllegalStateException if the watcher is already started
+    */
+   public synchronized void start(long period) throws IOException, IllegalStateException
+   {
+      if (executor != null)
+      {
+         throw new IllegalStateException("Already started");
+      }
+
+      //
+      scanner.scan();
+      executor = Executors.newSingleThreadScheduledExecutor(factory);
+      executor.scheduleWithFixedDelay(new Runnable()
+      {
+         public void run()
+         {
+            try
+            {
+               check();
+            }
+            catch (Exception e)
+            {
+               // An escaping exception would cancel the next checks
+               if (e instanceof IOException)
+               {
+                  failure = (IOException)e;
+               }
+               else
+               {
+                  failure = new IOException("Could not scan the file system");
+                  failure.initCause(e);
+               }
+               dirty = true;
+            }
+         }
+      }, period, period, TimeUnit.MILLISECONDS);
+   }
+
+   public synchronized void stop()
+   {
+      if (executor != null)
+      {
+         executor.shutdownNow();
+         executor = null;
+      }
+   }
+
+   /**
+    * Scan the file system and record the changes, this is done periodically when the watcher is started.
+    *
+    * @return true if changes were detected
+    * @throws IOException any io exception
+    */
+   public boolean check() throws IOException
+   {
+      Map<String, Change> detected;
+      synchronized (scanner)
+      {
+         detected = scanner.scan();
+      }
+      if (detected.size() > 0)
+      {
+         // Record the changes before publishing the flag
+         changes.putAll(detected);
+         dirty = true;
+         return true;
+      }
+      else
+      {
+         return false;
+      }
+   }
+
+   public boolean isDirty()
+   {
+      return dirty;
+   }
+
+   /**
+    * Returns the changes recorded since the last call and clear the dirty flag.
+    *
+    * @return the changes
+    * @throws IOException the failure of the background scan since the last call
+    */
+   public Map<String, Change> drain() throws IOException
+   {
+      // Clear the flag first so a concurrent check sets it again
+      dirty = false;
+      IOException failure = this.failure;
+      if (failure != null)
+      {
+         this.failure = null;
+         throw failure;
+      }
+      Map<String, Change> drained = new LinkedHashMap<String, Change>();
+      for (Map.Entry<String, Change> entry : changes.entrySet())
+      {
+         // A change recorded meanwhile for the same path remains for the next drain
+         if (changes.remove(entry.getKey(), entry.getValue()))
+         {
+            drained.put(entry.getKey(), entry.getValue());
+         }
+      }
+      return drained;
+   }
+}
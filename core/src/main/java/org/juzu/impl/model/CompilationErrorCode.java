@@ -41,6 +41,8 @@ public enum CompilationErrorCode implements ErrorCode
 
    CANNOT_WRITE_TEMPLATE_CLASS("The template class %1$s cannot be written"),
 
+   CANNOT_WRITE_TEMPLATE_BYTECODE("The template bytecode %1$s cannot be written"),
+
    CANNOT_WRITE_APPLICATION("The application %1$s cannot be written"),
 
    CONTROLLER_METHOD_NOT_RESOLVED("The controller method cannot be resolved %1$s"),
@@ -55,6 +57,10 @@ public enum CompilationErrorCode implements ErrorCode
 
    TEMPLATE_ILLEGAL_PATH("The reference to the template %1$s is malformed"),
 
+   TEMPLATE_TAG_ILLEGAL_ARGUMENT("The argument %1$s of the tag %2$s is not valid"),
+
+   TEMPLATE_CACHE_URL("The application scoped cache tag cannot cache the url %1$s"),
+
    ANNOTATION_UNSUPPORTED("The annotation of this element cannot be supported"),
 
    UNEXPECTED_ERROR("Unexpected error: %1$s");
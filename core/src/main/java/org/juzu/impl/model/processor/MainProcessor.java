@@ -21,7 +21,10 @@ package org.juzu.impl.model.processor;
 
 import org.juzu.impl.model.resolver.ModelResolver;
 
+import javax.annotation.processing.SupportedOptions;
+
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+@SupportedOptions({ModelResolver.TEMPLATE_PRECOMPILE_OPTION, ModelResolver.TEMPLATE_INLINE_OPTION})
 public class MainProcessor extends AbstractModelProcessor
 {
 
@@ -140,6 +140,11 @@ public class ProcessingContext implements Filer, Elements
 
    // Various stuff ****************************************************************************************************
 
+   public Map<String, String> getOptions()
+   {
+      return env.getOptions();
+   }
+
    public <E extends Element> E get(ElementHandle<E> handle)
    {
       return handle.get(env);
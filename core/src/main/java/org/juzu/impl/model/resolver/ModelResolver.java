@@ -46,6 +46,7 @@ import org.juzu.impl.utils.Logger;
 import org.juzu.impl.utils.Tools;
 import org.juzu.metadata.ApplicationDescriptor;
 import org.juzu.metadata.ControllerDescriptor;
+import org.juzu.metadata.ControllerInvoker;
 import org.juzu.metadata.ControllerMethod;
 import org.juzu.metadata.ControllerParameter;
 import org.juzu.request.ActionContext;
@@ -54,14 +55,17 @@ import org.juzu.request.MimeContext;
 import javax.annotation.Generated;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
 import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -98,6 +102,9 @@ public class ModelResolver extends ModelHandler implements Serializable
    /** . */
    private static final String CONTROLLER_PARAMETER = ControllerParameter.class.getSimpleName();
 
+   /** . */
+   private static final String CONTROLLER_INVOKER = ControllerInvoker.class.getSimpleName();
+
    /** . */
    private static final String PHASE = Phase.class.getSimpleName();
 
@@ -110,6 +117,12 @@ public class ModelResolver extends ModelHandler implements Serializable
    /** . */
    public static final String CARDINALITY = Cardinality.class.getSimpleName();
 
+   /** The processor option that turns on the ahead of time compilation of the template scripts. */
+   public static final String TEMPLATE_PRECOMPILE_OPTION = "juzu.template.precompile";
+
+   /** The processor option that turns on the inlining of the included and decorating templates. */
+   public static final String TEMPLATE_INLINE_OPTION = "juzu.template.inline";
+
    /** . */
    ProcessingContext env;
 
@@ -292,6 +305,16 @@ public class ModelResolver extends ModelHandler implements Serializable
       log.log("Emitting config");
       emitConfig();
 
+      //
+      if (Boolean.valueOf(env.getOptions().get(TEMPLATE_PRECOMPILE_OPTION)))
+      {
+         log.log("Precompiling templates");
+         for (TemplateResolver repo : templateRepositoryMap.values())
+         {
+            repo.precompile(this);
+         }
+      }
+
       //
       log.log("Passivating templates");
       for (TemplateResolver repo : templateRepositoryMap.values())
@@ -442,15 +465,28 @@ public class ModelResolver extends ModelHandler implements Serializable
          writer.append("import ").append(Tools.getImport(Generated.class)).append(";\n");
          writer.append("import ").append(Tools.getImport(Cardinality.class)).append(";\n");
 
+         writer.append("import ").append(Tools.getImport(ControllerInvoker.class)).append(";\n");
+         writer.append("import ").append(Tools.getImport(InvocationTargetException.class)).append(";\n");
+         writer.append("import ").append(Tools.getImport(Map.class)).append(";\n");
+
          // Open class
          writer.append("@Generated(value={})\n");
          writer.append("public class ").append(fqn.getSimpleName()).append("_ {\n");
 
+         // The methods that can be invoked directly by the generated invoker
+         boolean[] invocables = new boolean[methods.size()];
+         for (int i = 0;i < invocables.length;i++)
+         {
+            ExecutableElement methodElt = env.get(methods.get(i).getHandle());
+            invocables[i] = methodElt != null && !methodElt.getModifiers().contains(Modifier.PRIVATE);
+         }
+
          //
          int index = 0;
          for (MethodMetaModel method : methods)
          {
-            String methodRef = "method_" + index++;
+            int methodIndex = index++;
+            String methodRef = "method_" + methodIndex;
 
             // Method constant
             writer.append("private static final ").append(CONTROLLER_METHOD).append(" ").append(methodRef).append(" = ");
@@ -487,6 +523,14 @@ public class ModelResolver extends ModelHandler implements Serializable
                   append(')');
             }
             writer.append(")");
+            if (invocables[methodIndex])
+            {
+               writer.append(", new Invoker(").append(Integer.toString(methodIndex)).append(")");
+            }
+            else
+            {
+               writer.append(", null");
+            }
             writer.append(");\n");
 
             // Render builder literal
@@ -573,6 +617,66 @@ public class ModelResolver extends ModelHandler implements Serializable
          writer.append(")");
          writer.append(");\n");
 
+         // Invoker performing direct calls to the controller methods
+         writer.append("static class Invoker extends ").append(CONTROLLER_INVOKER).append(" {\n");
+         writer.append("private final int index;\n");
+         writer.append("Invoker(int index) { this.index = index; }\n");
+         writer.append("public Object invoke(Object controller, Map<String, String[]> parameters) throws InvocationTargetException {\n");
+         writer.append(fqn.getFullName()).append(" c = (").append(fqn.getFullName()).append(")controller;\n");
+         writer.append("switch (index) {\n");
+         for (int j = 0;j < methods.size();j++)
+         {
+            if (invocables[j])
+            {
+               MethodMetaModel method = methods.get(j);
+               ExecutableElement methodElt = env.get(method.getHandle());
+               boolean isVoid = methodElt.getReturnType().getKind() == TypeKind.VOID;
+               writer.append("case ").append(Integer.toString(j)).append(": {\n");
+
+               // The arguments are evaluated before the call so only the controller failures are wrapped
+               for (int k = 0;k < method.getParameterNames().size();k++)
+               {
+                  Cardinality cardinality = method.getParameterCardinalities().get(k);
+                  if (cardinality == null)
+                  {
+                     throw new CompilationException(methodElt.getParameters().get(k), CompilationErrorCode.CONTROLLER_METHOD_PARAMETER_NOT_RESOLVED);
+                  }
+                  switch (cardinality)
+                  {
+                     case SINGLE:
+                        writer.append("String p").append(Integer.toString(k)).append(" = single");
+                        break;
+                     case ARRAY:
+                        writer.append("String[] p").append(Integer.toString(k)).append(" = array");
+                        break;
+                     case LIST:
+                        writer.append("java.util.List<String> p").append(Integer.toString(k)).append(" = list");
+                        break;
+                     default:
+                        throw new CompilationException(methodElt.getParameters().get(k), CompilationErrorCode.CONTROLLER_METHOD_PARAMETER_NOT_RESOLVED);
+                  }
+                  writer.append("(parameters,\"").append(method.getParameterNames().get(k)).append("\");\n");
+               }
+               writer.append("try { ").append(isVoid ? "" : "return ").append("c.").append(method.getName()).append("(");
+               for (int k = 0;k < method.getParameterNames().size();k++)
+               {
+                  if (k > 0)
+                  {
+                     writer.append(",");
+                  }
+                  writer.append("p").append(Integer.toString(k));
+               }
+               writer.append("); }\n");
+               writer.append("catch (Throwable t) { throw new InvocationTargetException(t); }\n");
+               writer.append(isVoid ? "return null;\n" : "");
+               writer.append("}\n");
+            }
+         }
+         writer.append("default: throw new AssertionError();\n");
+         writer.append("}\n");
+         writer.append("}\n");
+         writer.append("}\n");
+
          // Close class
          writer.append("}\n");
 
@@ -49,6 +49,7 @@ import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -88,6 +89,9 @@ public class TemplateResolver implements Serializable
    /** . */
    private Map<FQN, FileObject> classCache;
 
+   /** The scripts generated during this compilation keyed by template path. */
+   private Map<String, String> scriptCache;
+
    public TemplateResolver(ApplicationMetaModel application)
    {
       this.application = application;
@@ -95,6 +99,7 @@ public class TemplateResolver implements Serializable
       this.resourceCache = new HashMap<String, FileObject>();
       this.stubCache = new HashMap<FQN, FileObject>();
       this.classCache = new HashMap<FQN, FileObject>();
+      this.scriptCache = new HashMap<String, String>();
    }
 
    public Collection<Template> getTemplates()
@@ -108,12 +113,66 @@ public class TemplateResolver implements Serializable
       resourceCache.clear();
       stubCache.clear();
       classCache.clear();
+      scriptCache.clear();
+   }
+
+   void precompile(ModelResolver context)
+   {
+      for (Map.Entry<String, String> entry : scriptCache.entrySet())
+      {
+         Template template = templates.get(entry.getKey());
+         if (template == null)
+         {
+            continue;
+         }
+
+         //
+         FQN fqn = template.getFQN();
+         TemplateProvider provider = context.providers.get(template.getExtension());
+         Map<String, byte[]> classes;
+         try
+         {
+            classes = provider.compile(entry.getValue(), context.env);
+         }
+         catch (Exception e)
+         {
+            // The script will be compiled at runtime
+            log.log("Could not precompile template " + fqn.getFullName(), e);
+            continue;
+         }
+
+         //
+         if (classes != null)
+         {
+            for (Map.Entry<String, byte[]> clazz : classes.entrySet())
+            {
+               String name = TemplateProvider.getBytecodeResourceName(fqn.getSimpleName(), clazz.getKey());
+               OutputStream out = null;
+               try
+               {
+                  FileObject bytecodeFile = context.env.createResource(StandardLocation.CLASS_OUTPUT, fqn.getPackageName(), name);
+                  out = bytecodeFile.openOutputStream();
+                  out.write(clazz.getValue());
+               }
+               catch (IOException e)
+               {
+                  throw new CompilationException(e, CompilationErrorCode.CANNOT_WRITE_TEMPLATE_BYTECODE, template.getPath());
+               }
+               finally
+               {
+                  Tools.safeClose(out);
+               }
+            }
+            log.log("Precompiled template " + fqn.getFullName() + " to " + classes.keySet());
+         }
+      }
    }
 
    void process(ModelResolver context) throws CompilationException
    {
       // Evict templates that are out of date
       log.log("Synchronizing existing templates " + templates.keySet());
+      boolean evicted = false;
       for (Iterator<Template> i = templates.values().iterator();i.hasNext();)
       {
          Template template = i.next();
@@ -122,12 +181,14 @@ public class TemplateResolver implements Serializable
          {
             // That will generate a template not found error
             i.remove();
+            evicted = true;
             log.log("Detected template removal " + template.getFQN());
          }
          else if (content.getLastModified() > template.getLastModified())
          {
             // That will force the regeneration of the template
             i.remove();
+            evicted = true;
             log.log("Detected stale template " + template.getFQN());
          }
          else
@@ -136,6 +197,13 @@ public class TemplateResolver implements Serializable
          }
       }
 
+      // An inlined template is part of the templates that include it, we regenerate all of them
+      if (evicted && isInline(context))
+      {
+         log.log("Evicting all templates as templates are inlined");
+         templates.clear();
+      }
+
       // Build missing templates
       log.log("Building missing templates");
       Map<String, Template> copy = new HashMap<String, Template>(templates);
@@ -182,8 +250,11 @@ public class TemplateResolver implements Serializable
          // Resolve the qualified class
          resolvedQualified(template, context, elements);
 
-         //
-         resolveScript(template, context, elements);
+         // A provider generating the stub source has already emitted the template in the stub
+         if (!context.providers.get(template.getExtension()).isStubSource())
+         {
+            resolveScript(template, context, elements);
+         }
       }
    }
 
@@ -203,42 +274,16 @@ public class TemplateResolver implements Serializable
                Writer writer = null;
                try
                {
-                  TemplateEmitter generator = provider.createEmitter();
-                  ASTNode.Template ast = template.getAST();
-                  EmitPhase tcc = new EmitPhase(new EmitContext()
-                  {
-                     @Override
-                     public MethodInvocation resolveMethodInvocation(String typeName, String methodName, Map<String, String> parameterMap) throws CompilationException
-                     {
-                        MethodMetaModel method = application.resolve(typeName, methodName, parameterMap.keySet());
-
-                        //
-                        if (method == null)
-                        {
-                           throw new CompilationException(CompilationErrorCode.CONTROLLER_METHOD_NOT_RESOLVED, methodName + "(" + parameterMap + ")");
-                        }
-
-                        //
-                        List<String> args = new ArrayList<String>();
-                        for (String parameterName : method.getParameterNames())
-                        {
-                           String value = parameterMap.get(parameterName);
-                           args.add(value);
-                        }
-                        return new MethodInvocation(method.getController().getHandle().getFQN().getFullName() + "_", method.getName() + "URL", args);
-                     }
-                  });
-
-                  //
-                  tcc.emit(generator, ast);
+                  String script = emit(template, provider, isInline(context));
 
                   //
                   FileObject scriptFile = context.env.createResource(StandardLocation.CLASS_OUTPUT, template.getFQN().getPackageName(), template.getFQN().getSimpleName() + "." + provider.getTargetExtension(), elements);
                   writer = scriptFile.openWriter();
-                  writer.write(generator.toString());
+                  writer.write(script);
 
                   // Put it in cache
                   resourceCache.put(key, scriptFile);
+                  scriptCache.put(template.getPath(), script);
 
                   //
                   log.log("Generated template script " + template.getFQN().getFullName() + " as " + scriptFile.toUri() +
@@ -264,6 +309,54 @@ public class TemplateResolver implements Serializable
       });
    }
 
+   private static boolean isInline(ModelResolver context)
+   {
+      return Boolean.valueOf(context.env.getOptions().get(ModelResolver.TEMPLATE_INLINE_OPTION));
+   }
+
+   private String emit(final Template template, TemplateProvider provider, final boolean inline) throws IOException
+   {
+      TemplateEmitter generator = provider.createEmitter();
+      ASTNode.Template ast = template.getAST();
+      EmitPhase tcc = new EmitPhase(new EmitContext()
+      {
+         @Override
+         public MethodInvocation resolveMethodInvocation(String typeName, String methodName, Map<String, String> parameterMap) throws CompilationException
+         {
+            MethodMetaModel method = application.resolve(typeName, methodName, parameterMap.keySet());
+
+            //
+            if (method == null)
+            {
+               throw new CompilationException(CompilationErrorCode.CONTROLLER_METHOD_NOT_RESOLVED, methodName + "(" + parameterMap + ")");
+            }
+
+            //
+            List<String> args = new ArrayList<String>();
+            for (String parameterName : method.getParameterNames())
+            {
+               String value = parameterMap.get(parameterName);
+               args.add(value);
+            }
+            return new MethodInvocation(method.getController().getHandle().getFQN().getFullName() + "_", method.getName() + "URL", args);
+         }
+
+         @Override
+         public Template resolveTemplate(String path)
+         {
+            // Only a template of the same provider can be inlined
+            Template resolved = inline ? templates.get(path) : null;
+            return resolved != null && resolved.getExtension().equals(template.getExtension()) ? resolved : null;
+         }
+      });
+
+      //
+      tcc.emit(generator, ast);
+
+      //
+      return generator.toString();
+   }
+
    private void resolvedQualified(Template template, ModelResolver context, Element[] elements)
    {
       if (classCache.containsKey(template.getFQN()))
@@ -296,7 +389,13 @@ public class TemplateResolver implements Serializable
             append(ApplicationContext.class.getSimpleName()).append(" applicationContext").
             append(")\n");
          writer.append("{\n");
-         writer.append("super(applicationContext, \"").append(template.getPath()).append("\");\n");
+         writer.append("super(applicationContext, \"").append(template.getPath()).append("\"");
+         if (template.getTitle() != null)
+         {
+            writer.append(", ");
+            appendLiteral(template.getTitle(), writer);
+         }
+         writer.append(");\n");
          writer.append("}\n");
 
          //
@@ -351,7 +450,7 @@ public class TemplateResolver implements Serializable
       }
    }
 
-   private void resolveStub(Template template, ModelResolver context, Element[] elements)
+   private void resolveStub(final Template template, final ModelResolver context, Element[] elements)
    {
       if (stubCache.containsKey(template.getFQN()))
       {
@@ -361,7 +460,22 @@ public class TemplateResolver implements Serializable
 
       //
       FQN stubFQN = new FQN(template.getFQN().getFullName() + "_");
-      TemplateProvider provider = context.providers.get(template.getExtension());
+      final TemplateProvider provider = context.providers.get(template.getExtension());
+
+      // Emit the stub body
+      String body = null;
+      if (provider.isStubSource())
+      {
+         body = context.env.executeWithin(elements[0], new Callable<String>()
+         {
+            public String call() throws Exception
+            {
+               return emit(template, provider, isInline(context));
+            }
+         });
+      }
+
+      //
       Writer writer = null;
       try
       {
@@ -372,6 +486,10 @@ public class TemplateResolver implements Serializable
          writer.append("import ").append(Tools.getImport(Generated.class)).append(";\n");
          writer.append("@Generated({\"").append(stubFQN.getFullName()).append("\"})\n");
          writer.append("public class ").append(stubFQN.getSimpleName()).append(" extends ").append(provider.getTemplateStubType().getName()).append(" {\n");
+         if (body != null)
+         {
+            writer.append(body);
+         }
          writer.append("}");
 
          //
@@ -390,4 +508,31 @@ public class TemplateResolver implements Serializable
          Tools.safeClose(writer);
       }
    }
+
+   private static void appendLiteral(String s, Writer writer) throws IOException
+   {
+      writer.append('"');
+      for (int i = 0;i < s.length();i++)
+      {
+         char c = s.charAt(i);
+         switch (c)
+         {
+            case '"':
+               writer.append("\\\"");
+               break;
+            case '\\':
+               writer.append("\\\\");
+               break;
+            case '\n':
+               writer.append("\\n");
+               break;
+            case '\r':
+               writer.append("\\r");
+               break;
+            default:
+               writer.append(c);
+         }
+      }
+      writer.append('"');
+   }
 }
@@ -23,11 +23,20 @@ import org.juzu.impl.fs.Visitor;
 import org.juzu.impl.utils.Content;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -43,12 +52,77 @@ public abstract class ReadFileSystem<P> extends SimpleFileSystem<P>
       ReadFileSystem.copy(src, src.getRoot(), dst, dst.getRoot());
    }
 
+   /**
+    * Copy a file system with a pool of the specified number of threads.
+    *
+    * @param src the source
+    * @param dst the destination
+    * @param parallelism the number of threads
+    * @throws IOException any io exception
+    * @see #copy(ReadFileSystem, Object, ReadWriteFileSystem, Object, ExecutorService)
+    */
+   public static <S, D> void copy(ReadFileSystem<S> src, ReadWriteFileSystem<D> dst, int parallelism) throws IOException
+   {
+      ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+      try
+      {
+         ReadFileSystem.copy(src, src.getRoot(), dst, dst.getRoot(), executor);
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
    private static <S, D> int kind(ReadFileSystem<S> src, S srcPath, ReadWriteFileSystem<D> dst, D dstPath) throws IOException
    {
       return (src.isDir(srcPath) ? 1 : 0) + (dst.isDir(dstPath) ? 2 : 0);
    }
 
    public static <S, D> void copy(ReadFileSystem<S> src, S srcPath, ReadWriteFileSystem<D> dst, D dstPath) throws IOException
+   {
+      copy(src, srcPath, dst, dstPath, null, null);
+   }
+
+   /**
+    * Copy a path with an executor: the directories are copied by the calling thread and the file contents
+    * are copied by the executor. The copy is sequential when the destination does not support concurrent
+    * writes.
+    *
+    * @param src the source
+    * @param srcPath the source path
+    * @param dst the destination
+    * @param dstPath the destination path
+    * @param executor the executor
+    * @throws IOException any io exception
+    */
+   public static <S, D> void copy(ReadFileSystem<S> src, S srcPath, ReadWriteFileSystem<D> dst, D dstPath, ExecutorService executor) throws IOException
+   {
+      if (dst.isConcurrent())
+      {
+         List<Future<?>> futures = new ArrayList<Future<?>>();
+         try
+         {
+            copy(src, srcPath, dst, dstPath, executor, futures);
+         }
+         finally
+         {
+            await(futures);
+         }
+      }
+      else
+      {
+         copy(src, srcPath, dst, dstPath);
+      }
+   }
+
+   private static <S, D> void copy(
+      final ReadFileSystem<S> src,
+      final S srcPath,
+      final ReadWriteFileSystem<D> dst,
+      final D dstPath,
+      ExecutorService executor,
+      List<Future<?>> futures) throws IOException
    {
       int kind = kind(src, srcPath, dst, dstPath);
 
@@ -57,7 +131,21 @@ public abstract class ReadFileSystem<P> extends SimpleFileSystem<P>
       {
          case 0:
          {
-            dst.setContent(dstPath, src.getContent(srcPath));
+            if (executor != null)
+            {
+               futures.add(executor.submit(new Callable<Object>()
+               {
+                  public Object call() throws Exception
+                  {
+                     dst.setContent(dstPath, src.getContent(srcPath));
+                     return null;
+                  }
+               }));
+            }
+            else
+            {
+               dst.setContent(dstPath, src.getContent(srcPath));
+            }
             break;
          }
          case 3:
@@ -80,7 +168,7 @@ public abstract class ReadFileSystem<P> extends SimpleFileSystem<P>
                         i.remove();
                         break;
                      default:
-                        copy(src, a, dst, next);
+                        copy(src, a, dst, next, executor, futures);
                         break;
                   }
                }
@@ -101,7 +189,7 @@ public abstract class ReadFileSystem<P> extends SimpleFileSystem<P>
                      a = dst.addFile(dstPath, name);
                   }
                }
-               copy(src, next, dst, a);
+               copy(src, next, dst, a, executor, futures);
             }
             break;
          }
@@ -110,6 +198,56 @@ public abstract class ReadFileSystem<P> extends SimpleFileSystem<P>
       }
    }
 
+   /**
+    * Wait for the completion of the futures and rethrow the first failure.
+    *
+    * @param futures the futures
+    * @throws IOException any io exception
+    */
+   private static void await(List<Future<?>> futures) throws IOException
+   {
+      Throwable failure = null;
+      for (Future<?> future : futures)
+      {
+         if (failure != null)
+         {
+            future.cancel(false);
+         }
+         else
+         {
+            try
+            {
+               future.get();
+            }
+            catch (InterruptedException e)
+            {
+               Thread.currentThread().interrupt();
+               failure = new InterruptedIOException();
+            }
+            catch (ExecutionException e)
+            {
+               failure = e.getCause();
+            }
+         }
+      }
+      if (failure instanceof IOException)
+      {
+         throw (IOException)failure;
+      }
+      else if (failure instanceof RuntimeException)
+      {
+         throw (RuntimeException)failure;
+      }
+      else if (failure instanceof Error)
+      {
+         throw (Error)failure;
+      }
+      else if (failure != null)
+      {
+         throw new UndeclaredThrowableException(failure);
+      }
+   }
+
    public final void dump(Appendable appendable) throws IOException
    {
       dump(getRoot(), appendable);
@@ -267,6 +405,70 @@ public abstract class ReadFileSystem<P> extends SimpleFileSystem<P>
       traverse(getRoot(), visitor);
    }
 
+   public final void traverse(Visitor<P> visitor, ExecutorService executor) throws IOException
+   {
+      traverse(getRoot(), visitor, executor);
+   }
+
+   /**
+    * Traverse a path with an executor, the files are visited concurrently by the executor so the visitor
+    * must be thread safe. The directories are entered and left by the calling thread, a directory is left
+    * after its files and its sub directories have been visited.
+    *
+    * @param path the path
+    * @param visitor the visitor
+    * @param executor the executor
+    * @throws IOException any io exception
+    */
+   public final void traverse(P path, final Visitor<P> visitor, ExecutorService executor) throws IOException
+   {
+      final String name = getName(path);
+      if (isDir(path))
+      {
+         if (visitor.enterDir(path, name))
+         {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            try
+            {
+               List<P> dirs = new ArrayList<P>();
+               for (Iterator<P> i = getChildren(path);i.hasNext();)
+               {
+                  final P child = i.next();
+                  if (isDir(child))
+                  {
+                     dirs.add(child);
+                  }
+                  else
+                  {
+                     final String childName = getName(child);
+                     futures.add(executor.submit(new Callable<Object>()
+                     {
+                        public Object call() throws Exception
+                        {
+                           visitor.file(child, childName);
+                           return null;
+                        }
+                     }));
+                  }
+               }
+               for (P dir : dirs)
+               {
+                  traverse(dir, visitor, executor);
+               }
+            }
+            finally
+            {
+               await(futures);
+            }
+            visitor.leaveDir(path, name);
+         }
+      }
+      else
+      {
+         visitor.file(path, name);
+      }
+   }
+
    public final URL getURL() throws IOException
    {
       P root = getRoot();
@@ -80,6 +80,17 @@ public abstract class ReadWriteFileSystem<P> extends ReadFileSystem<P>
       return dir;
    }
 
+   /**
+    * Returns true when distinct files can be written concurrently while the directories are modified by
+    * another thread, the default implementation returns false.
+    *
+    * @return true when the file system supports concurrent writes
+    */
+   public boolean isConcurrent()
+   {
+      return false;
+   }
+
    public abstract P addDir(P parent, String name) throws IOException;
 
    public abstract P addFile(P parent, String name) throws IOException;
@@ -25,28 +25,43 @@ import org.juzu.impl.utils.Tools;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
-/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+/**
+ * A file system for the resources of a class loader. The roots of the class loader hierarchy are indexed once
+ * when the file system is first accessed: the urls of the {@link URLClassLoader} and the system class path. A
+ * resource that is not found in the index is looked up with the class loader, its root is indexed when it is a
+ * directory or a jar file, otherwise the resource can be read but not listed.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
 public class ClassLoaderFileSystem extends SimpleFileSystem<String>
 {
 
    /** . */
    private final ClassLoader classLoader;
 
-   /** . */
-   private Map<URL, String[]> cache;
+   /** The index, null until it is built. */
+   private Index index;
 
    public ClassLoaderFileSystem(ClassLoader classLoader)
    {
@@ -55,7 +70,6 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
          throw new NullPointerException("No null class loader accepted");
       }
       this.classLoader = classLoader;
-      this.cache = new HashMap<URL, String[]>();
    }
 
    public ClassLoader getClassLoader()
@@ -63,6 +77,79 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
       return classLoader;
    }
 
+   /**
+    * Discard the index, it is built again on demand. It must be called when a jar of the class loader has changed.
+    */
+   public synchronized void invalidate()
+   {
+      index = null;
+   }
+
+   private synchronized Index getIndex() throws IOException
+   {
+      if (index == null)
+      {
+         List<URL> roots = new ArrayList<URL>();
+         getRoots(classLoader, roots);
+
+         // The roots found above the class loader may be hidden by it, for instance by the dev class loader
+         boolean check = !(classLoader instanceof URLClassLoader);
+         Index index = new Index();
+         for (URL root : roots)
+         {
+            index.add(root, check);
+         }
+         this.index = index;
+      }
+      return index;
+   }
+
+   /**
+    * Collect the roots of a class loader hierarchy in the delegation order. A class loader that is not an
+    * {@link URLClassLoader} is assumed to delegate to its parent, the system class loader is an exception as its
+    * roots are provided by the <code>java.class.path</code> system property.
+    *
+    * @param cl the class loader
+    * @param roots the roots
+    * @throws IOException any io exception
+    */
+   private static void getRoots(ClassLoader cl, List<URL> roots) throws IOException
+   {
+      ClassLoader parent = cl.getParent();
+      if (parent != null)
+      {
+         getRoots(parent, roots);
+      }
+      if (cl instanceof URLClassLoader)
+      {
+         for (URL url : ((URLClassLoader)cl).getURLs())
+         {
+            if (!roots.contains(url))
+            {
+               roots.add(url);
+            }
+         }
+      }
+      else if (cl == ClassLoader.getSystemClassLoader())
+      {
+         String classPath = System.getProperty("java.class.path");
+         if (classPath != null)
+         {
+            for (String entry : classPath.split(File.pathSeparator))
+            {
+               if (entry.length() > 0)
+               {
+                  URL url = new File(entry).toURI().toURL();
+                  if (!roots.contains(url))
+                  {
+                     roots.add(url);
+                  }
+               }
+            }
+         }
+      }
+   }
+
    @Override
    public String getName(String path) throws IOException
    {
@@ -87,7 +174,7 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
    }
 
    @Override
-   public String getPath(Iterable<String> names) throws IOException
+   public synchronized String getPath(Iterable<String> names) throws IOException
    {
       StringBuilder sb = new StringBuilder();
       boolean foo = true;
@@ -105,15 +192,38 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
       }
 
       //
-      sb.append('/');
       String path = sb.toString();
-      URL url = classLoader.getResource(path);
-      if (url == null)
+      if (path.length() == 0)
+      {
+         return path;
+      }
+      String dir = path + "/";
+      Index index = getIndex();
+      if (index.dirs.containsKey(dir))
+      {
+         return dir;
+      }
+      else if (index.files.containsKey(path))
+      {
+         return path;
+      }
+      else if (index.missing.contains(path))
+      {
+         return null;
+      }
+      else if (index.lookup(dir))
       {
-         path = sb.substring(0, sb.length() - 1);
-         url = classLoader.getResource(path);
+         return dir;
+      }
+      else if (index.lookup(path))
+      {
+         return path;
+      }
+      else
+      {
+         index.missing.add(path);
+         return null;
       }
-      return url != null ? path : null;
    }
 
    @Override
@@ -127,54 +237,17 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
    }
 
    @Override
-   public Iterator<String> getChildren(String dir) throws IOException
+   public synchronized Iterator<String> getChildren(String dir) throws IOException
    {
-      List<String> ret = new ArrayList<String>();
-      Enumeration<URL> e = classLoader.getResources(dir);
-      while (e.hasMoreElements())
+      List<String> children = getIndex().dirs.get(dir);
+      if (children == null)
       {
-         URL url = e.nextElement();
-         String protocol = url.getProtocol();
-         if (protocol.equals("jar"))
-         {
-            String path = url.getPath();
-            int pos = path.indexOf("!/");
-            URL url2 = new URL(path.substring(0, pos));
-            String[] entries = cache.get(url2);
-            if (entries == null)
-            {
-               JarInputStream in = new JarInputStream(url2.openStream());
-               try
-               {
-                  ArrayList<String> tmp = new ArrayList<String>();
-                  for (JarEntry jarEntry = in.getNextJarEntry();jarEntry != null;jarEntry = in.getNextJarEntry())
-                  {
-                     tmp.add(jarEntry.getName());
-                  }
-                  entries = tmp.toArray(new String[tmp.size()]);
-                  cache.put(url2, entries);
-               }
-               finally
-               {
-                  Tools.safeClose(in);
-               }
-            }
-            for (String entry : entries)
-            {
-               if (entry.length() > dir.length() + 1 &&
-                  entry.startsWith(dir) &&
-                  entry.indexOf('/', dir.length() + 1) == -1)
-               {
-                  ret.add(entry);
-               }
-            }
-         }
-         else
-         {
-            throw new UnsupportedOperationException("todo");
-         }
+         return Collections.<String>emptyList().iterator();
+      }
+      else
+      {
+         return new ArrayList<String>(children).iterator();
       }
-      return ret.iterator();
    }
 
    @Override
@@ -192,16 +265,33 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
    @Override
    public Content getContent(String file) throws IOException
    {
-      URL url = classLoader.getResource(file);
+      URL url;
+      synchronized (this)
+      {
+         URL root = getIndex().files.get(file);
+         if (root == null)
+         {
+            url = classLoader.getResource(file);
+         }
+         else if (!root.getPath().endsWith("/"))
+         {
+            url = new URL("jar:" + root.toExternalForm() + "!/" + file);
+         }
+         else
+         {
+            url = new URL(root, file);
+         }
+      }
       if (url == null)
       {
-         throw new UnsupportedOperationException("handle me correctly");
+         throw new IOException("Could not find resource " + file);
       }
 
-      //
+      // Don't use the cached jar files since a jar may have changed
       URLConnection conn = url.openConnection();
+      conn.setUseCaches(false);
       long lastModified = conn.getLastModified();
-      byte[] bytes = Tools.bytes(conn.getInputStream());
+      byte[] bytes = Tools.bytes(conn.getInputStream(), conn.getContentLength());
       return new Content(lastModified,  bytes, Charset.defaultCharset());
    }
 
@@ -210,4 +300,233 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
    {
       throw new UnsupportedOperationException();
    }
+
+   /**
+    * The index of the roots, the roots are indexed sequentially.
+    */
+   private class Index
+   {
+
+      /** Maps a directory to its files. */
+      private final Map<String, List<String>> dirs = new HashMap<String, List<String>>();
+
+      /** Maps a file to the root providing it. */
+      private final Map<String, URL> files = new HashMap<String, URL>();
+
+      /** The roots already seen. */
+      private final Set<URL> roots = new HashSet<URL>();
+
+      /** The paths known to be missing. */
+      private final Set<String> missing = new HashSet<String>();
+
+      private Index()
+      {
+         dirs.put("", new ArrayList<String>());
+      }
+
+      /**
+       * Index a root and the roots of its manifest class path.
+       *
+       * @param root the root
+       * @param check true when the root must be visible from the class loader
+       * @throws IOException any io exception
+       */
+      private void add(URL root, boolean check) throws IOException
+      {
+         LinkedList<URL> queue = new LinkedList<URL>();
+         queue.add(root);
+         while (queue.size() > 0)
+         {
+            URL url = queue.removeFirst();
+            if (roots.add(url))
+            {
+               File file = getFile(url);
+               List<String> names = new ArrayList<String>();
+               if (file == null)
+               {
+                  // We don't know how to list it
+               }
+               else if (file.isDirectory())
+               {
+                  list(file, "", names);
+               }
+               else if (file.isFile())
+               {
+                  JarFile jar = new JarFile(file);
+                  try
+                  {
+                     for (Enumeration<JarEntry> e = jar.entries();e.hasMoreElements();)
+                     {
+                        String name = e.nextElement().getName();
+                        if (!name.endsWith("/"))
+                        {
+                           names.add(name);
+                        }
+                     }
+                     Manifest manifest = jar.getManifest();
+                     String classPath = manifest != null ? manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) : null;
+                     if (classPath != null)
+                     {
+                        List<URL> entries = new ArrayList<URL>();
+                        for (String entry : classPath.trim().split("\\s+"))
+                        {
+                           if (entry.length() > 0)
+                           {
+                              entries.add(new URL(url, entry));
+                           }
+                        }
+                        queue.addAll(0, entries);
+                     }
+                  }
+                  finally
+                  {
+                     jar.close();
+                  }
+               }
+               if (names.size() > 0 && (!check || isVisible(url, names.get(0))))
+               {
+                  for (String name : names)
+                  {
+                     put(url, name);
+                  }
+               }
+            }
+         }
+      }
+
+      private void list(File dir, String prefix, List<String> names)
+      {
+         File[] children = dir.listFiles();
+         if (children != null)
+         {
+            for (File child : children)
+            {
+               if (child.isDirectory())
+               {
+                  list(child, prefix + child.getName() + "/", names);
+               }
+               else
+               {
+                  names.add(prefix + child.getName());
+               }
+            }
+         }
+      }
+
+      private void put(URL root, String name)
+      {
+         if (!files.containsKey(name))
+         {
+            files.put(name, root);
+            String dir = name.substring(0, name.lastIndexOf('/') + 1);
+            List<String> children = dirs.get(dir);
+            if (children == null)
+            {
+               dirs.put(dir, children = new ArrayList<String>());
+
+               // Register the ancestors so they are directories too
+               for (String parent = dir;parent.length() > 0;)
+               {
+                  parent = parent.substring(0, parent.lastIndexOf('/', parent.length() - 2) + 1);
+                  if (dirs.containsKey(parent))
+                  {
+                     break;
+                  }
+                  dirs.put(parent, new ArrayList<String>());
+               }
+            }
+            children.add(name);
+         }
+      }
+
+      /**
+       * Returns true when the class loader resolves a resource of a root to this root.
+       *
+       * @param root the root
+       * @param name the resource name
+       * @return true if the root is visible
+       * @throws IOException any io exception
+       */
+      private boolean isVisible(URL root, String name) throws IOException
+      {
+         for (Enumeration<URL> e = classLoader.getResources(name);e.hasMoreElements();)
+         {
+            if (root.equals(getRoot(e.nextElement(), name)))
+            {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      /**
+       * Look up a path with the class loader and index the roots providing it that we did not know.
+       *
+       * @param path the path
+       * @return true when the path was found
+       * @throws IOException any io exception
+       */
+      private boolean lookup(String path) throws IOException
+      {
+         boolean found = false;
+         for (Enumeration<URL> e = classLoader.getResources(path);e.hasMoreElements();)
+         {
+            URL root = getRoot(e.nextElement(), path);
+            if (root != null && !roots.contains(root))
+            {
+               add(root, false);
+               missing.clear();
+            }
+            found = true;
+         }
+         return found;
+      }
+
+      /**
+       * Returns the root of a resource url or null when the url protocol is not known.
+       *
+       * @param url the resource url
+       * @param name the resource name
+       * @return the root
+       * @throws IOException any io exception
+       */
+      private URL getRoot(URL url, String name) throws IOException
+      {
+         String protocol = url.getProtocol();
+         if ("jar".equals(protocol))
+         {
+            String path = url.getPath();
+            int pos = path.indexOf("!/");
+            return pos == -1 ? null : new URL(path.substring(0, pos));
+         }
+         else if ("file".equals(protocol))
+         {
+            String s = url.toExternalForm();
+            return s.endsWith(name) ? new URL(s.substring(0, s.length() - name.length())) : null;
+         }
+         else
+         {
+            return null;
+         }
+      }
+
+      private File getFile(URL url) throws IOException
+      {
+         if ("file".equals(url.getProtocol()))
+         {
+            try
+            {
+               return new File(url.toURI());
+            }
+            catch (URISyntaxException e)
+            {
+               throw new IOException("Invalid url " + url);
+            }
+         }
+         else
+         {
+            return null;
+         }
+      }
+   }
 }
@@ -23,9 +23,7 @@ import org.juzu.impl.spi.fs.ReadWriteFileSystem;
 import org.juzu.impl.utils.Content;
 import org.juzu.impl.utils.Tools;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
@@ -148,24 +146,16 @@ public class DiskFileSystem extends ReadWriteFileSystem<File>
       return null;
    }
 
+   @Override
+   public boolean isConcurrent()
+   {
+      return true;
+   }
+
    @Override
    public Content getContent(File file) throws IOException
    {
-      FileInputStream in = new FileInputStream(file);
-      try
-      {
-         ByteArrayOutputStream content = new ByteArrayOutputStream();
-         byte[] buffer = new byte[256];
-         for (int l = in.read(buffer);l != -1;l = in.read(buffer))
-         {
-            content.write(buffer, 0, l);
-         }
-         return new Content(file.lastModified(), content.toByteArray(), encoding);
-      }
-      finally
-      {
-         Tools.safeClose(in);
-      }
+      return new Content(file.lastModified(), Tools.bytes(file), encoding);
    }
 
    @Override
@@ -21,45 +21,112 @@ package org.juzu.impl.spi.fs.jar;
 
 import org.juzu.impl.spi.fs.ReadFileSystem;
 import org.juzu.impl.utils.Content;
+import org.juzu.impl.utils.Tools;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Enumeration;
+import java.nio.charset.Charset;
 import java.util.Iterator;
-import java.util.jar.JarEntry;
+import java.util.NoSuchElementException;
 import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
 
-/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+/**
+ * A file system over a jar file. The structure of the jar is provided by an index shared by the file systems
+ * of the same jar file, so creating a file system for a jar already indexed does not read the jar again.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
 public class JarFileSystem extends ReadFileSystem<JarPath>
 {
 
    /** . */
-   final JarFile jar;
+   final JarIndex index;
 
    /** . */
    final URL jarURL;
 
-   /** A synthetic jar entry. */
-   private final JarPath root;
+   /** . */
+   private final File file;
+
+   /** The jar, opened on the first content read when the file system is created from a file. */
+   private volatile JarFile jar;
+
+   /** True when the jar is opened by this file system and must be closed by it. */
+   private final boolean owned;
+
+   /** . */
+   private final JarPath[] paths;
 
    public JarFileSystem(JarFile f) throws IOException
    {
+      this(new File(f.getName()), f);
+   }
 
-      //
-      this.jar = f;
-      this.jarURL = new File(f.getName()).toURI().toURL();
+   public JarFileSystem(File f) throws IOException
+   {
+      this(f, null);
+   }
 
-      //
-      JarPath root = new JarPath(this);
-      for (Enumeration<JarEntry> en = jar.entries();en.hasMoreElements();)
+   private JarFileSystem(File file, JarFile jar) throws IOException
+   {
+      this.file = file;
+      this.jar = jar;
+      this.owned = jar == null;
+      this.jarURL = file.toURI().toURL();
+      this.index = JarIndex.get(file, jar);
+
+      // A parent is always indexed before its children
+      JarPath[] paths = new JarPath[index.size];
+      for (int i = 0;i < paths.length;i++)
       {
-         JarEntry entry = en.nextElement();
-         root.append(entry);
+         int parent = index.parents[i];
+         paths[i] = new JarPath(this, parent == -1 ? null : paths[parent], i);
       }
 
       //
-      this.root = root;
+      this.paths = paths;
+   }
+
+   private JarFile getJar() throws IOException
+   {
+      JarFile jar = this.jar;
+      if (jar == null)
+      {
+         synchronized (this)
+         {
+            jar = this.jar;
+            if (jar == null)
+            {
+               this.jar = jar = new JarFile(file);
+            }
+         }
+      }
+      return jar;
+   }
+
+   /**
+    * Close the jar opened by this file system, a jar provided when the file system was created is not closed.
+    * The jar is opened again when a content is read after the file system is closed.
+    *
+    * @throws IOException any io exception
+    */
+   public void close() throws IOException
+   {
+      if (owned)
+      {
+         JarFile jar;
+         synchronized (this)
+         {
+            jar = this.jar;
+            this.jar = null;
+         }
+         if (jar != null)
+         {
+            jar.close();
+         }
+      }
    }
 
    @Override
@@ -71,7 +138,7 @@ public class JarFileSystem extends ReadFileSystem<JarPath>
    @Override
    public JarPath getRoot() throws IOException
    {
-      return root;
+      return paths[0];
    }
 
    @Override
@@ -93,7 +160,28 @@ public class JarFileSystem extends ReadFileSystem<JarPath>
       {
          throw new IllegalArgumentException("Not a directory");
       }
-      return dir.getChildren();
+      final int from = index.offsets[dir.index];
+      final int to = index.offsets[dir.index + 1];
+      return new Iterator<JarPath>()
+      {
+         int next = from;
+         public boolean hasNext()
+         {
+            return next < to;
+         }
+         public JarPath next()
+         {
+            if (next >= to)
+            {
+               throw new NoSuchElementException();
+            }
+            return paths[index.children[next++]];
+         }
+         public void remove()
+         {
+            throw new UnsupportedOperationException();
+         }
+      };
    }
 
    @Override
@@ -103,7 +191,8 @@ public class JarFileSystem extends ReadFileSystem<JarPath>
       {
          throw new IllegalArgumentException("Not a directory");
       }
-      return dir.getChild(name);
+      int child = index.getChild(dir.index, name);
+      return child == -1 ? null : paths[child];
    }
 
    @Override
@@ -121,7 +210,13 @@ public class JarFileSystem extends ReadFileSystem<JarPath>
    @Override
    public Content getContent(JarPath file) throws IOException
    {
-      return file.getContent();
+      ZipEntry entry = getJar().getEntry(file.getEntryName());
+      if (entry == null)
+      {
+         throw new IOException("Jar entry " + file.getEntryName() + " does not exist");
+      }
+      byte[] bytes = Tools.bytes(getJar().getInputStream(entry), (int)index.sizes[file.index]);
+      return new Content(index.times[file.index], bytes, Charset.defaultCharset());
    }
 
    @Override
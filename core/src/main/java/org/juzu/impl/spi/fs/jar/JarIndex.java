@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.fs.jar;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * A compact index of the entries of a jar file. The index is built from the central directory of the jar
+ * and stores the tree of entries in arrays, the index of a path is its position in the arrays and the root
+ * is at position zero. The indexes are shared by the jar file systems of the same jar file, an index is
+ * rebuilt when the jar file is modified. The most recently used indexes are kept, up to {@link #CACHE_SIZE}.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+final class JarIndex
+{
+
+   /** The maximum number of cached indexes. */
+   static final int CACHE_SIZE = 64;
+
+   /** The shared indexes keyed by canonical path in access order, guarded by itself. */
+   private static final LinkedHashMap<String, JarIndex> cache = new LinkedHashMap<String, JarIndex>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, JarIndex> eldest)
+      {
+         return size() > CACHE_SIZE;
+      }
+   };
+
+   /**
+    * Returns the index of a jar file, the jar argument is an optional opened jar for the file.
+    *
+    * @param file the jar file
+    * @param jar the optional opened jar
+    * @return the index
+    * @throws IOException any io exception
+    */
+   static JarIndex get(File file, JarFile jar) throws IOException
+   {
+      String key = file.getCanonicalPath();
+      long lastModified = file.lastModified();
+      long length = file.length();
+      JarIndex index;
+      synchronized (cache)
+      {
+         index = cache.get(key);
+      }
+      if (index == null || index.lastModified != lastModified || index.length != length)
+      {
+         if (jar != null)
+         {
+            index = new JarIndex(jar, lastModified, length);
+         }
+         else
+         {
+            jar = new JarFile(file);
+            try
+            {
+               index = new JarIndex(jar, lastModified, length);
+            }
+            finally
+            {
+               jar.close();
+            }
+         }
+         synchronized (cache)
+         {
+            cache.put(key, index);
+         }
+      }
+      return index;
+   }
+
+   /** . */
+   final long lastModified;
+
+   /** . */
+   final long length;
+
+   /** The number of paths. */
+   final int size;
+
+   /** The interned path names. */
+   final String[] names;
+
+   /** The parent of each path, -1 for the root. */
+   final int[] parents;
+
+   /** . */
+   final boolean[] dirs;
+
+   /** The entry time of each path, -1 when the path has no entry. */
+   final long[] times;
+
+   /** The entry size of each path, -1 when unknown. */
+   final long[] sizes;
+
+   /** The children of the path i are in the range [offsets[i], offsets[i + 1]) of the children array. */
+   final int[] offsets;
+
+   /** The children in jar order. */
+   final int[] children;
+
+   /** The children sorted by name within each range. */
+   final int[] sorted;
+
+   private JarIndex(JarFile jar, long lastModified, long length)
+   {
+      ArrayList<String> names = new ArrayList<String>();
+      ArrayList<Integer> parents = new ArrayList<Integer>();
+      ArrayList<Boolean> dirs = new ArrayList<Boolean>();
+      ArrayList<JarEntry> entries = new ArrayList<JarEntry>();
+      HashMap<String, Integer> lookup = new HashMap<String, Integer>();
+
+      // The root
+      names.add("");
+      parents.add(-1);
+      dirs.add(true);
+      entries.add(null);
+      lookup.put("", 0);
+
+      //
+      for (Enumeration<JarEntry> en = jar.entries();en.hasMoreElements();)
+      {
+         JarEntry entry = en.nextElement();
+         String entryName = entry.getName();
+         boolean dir = entryName.charAt(entryName.length() - 1) == '/';
+         String path = entryName.substring(0, entryName.length() - (dir ? 1 : 0));
+         int current = 0;
+         int from = 0;
+         while (true)
+         {
+            int to = path.indexOf('/', from);
+            boolean last = to == -1;
+            String key = last ? path : path.substring(0, to);
+            Integer existing = lookup.get(key);
+            if (existing == null)
+            {
+               existing = names.size();
+               names.add(key.substring(from).intern());
+               parents.add(current);
+               dirs.add(!last || dir);
+               entries.add(null);
+               lookup.put(key, existing);
+            }
+            if (last)
+            {
+               if (dir != dirs.get(existing))
+               {
+                  throw new AssertionError();
+               }
+               if (entries.get(existing) != null)
+               {
+                  throw new AssertionError();
+               }
+               entries.set(existing, entry);
+               break;
+            }
+            current = existing;
+            from = to + 1;
+         }
+      }
+
+      //
+      int size = names.size();
+      final String[] a = names.toArray(new String[size]);
+      int[] b = new int[size];
+      boolean[] c = new boolean[size];
+      long[] d = new long[size];
+      long[] e = new long[size];
+      int[] offsets = new int[size + 1];
+      for (int i = 0;i < size;i++)
+      {
+         b[i] = parents.get(i);
+         c[i] = dirs.get(i);
+         JarEntry entry = entries.get(i);
+         d[i] = entry != null ? entry.getTime() : -1;
+         e[i] = entry != null ? entry.getSize() : -1;
+         if (i > 0)
+         {
+            offsets[b[i] + 1]++;
+         }
+      }
+      for (int i = 0;i < size;i++)
+      {
+         offsets[i + 1] += offsets[i];
+      }
+
+      // A parent is always indexed before its children so the children are filled in jar order
+      int[] children = new int[Math.max(0, size - 1)];
+      int[] fill = new int[size];
+      System.arraycopy(offsets, 0, fill, 0, size);
+      for (int i = 1;i < size;i++)
+      {
+         children[fill[b[i]]++] = i;
+      }
+
+      //
+      Integer[] tmp = new Integer[children.length];
+      for (int i = 0;i < children.length;i++)
+      {
+         tmp[i] = children[i];
+      }
+      Comparator<Integer> comparator = new Comparator<Integer>()
+      {
+         public int compare(Integer o1, Integer o2)
+         {
+            return a[o1].compareTo(a[o2]);
+         }
+      };
+      int[] sorted = new int[children.length];
+      for (int i = 0;i < size;i++)
+      {
+         Arrays.sort(tmp, offsets[i], offsets[i + 1], comparator);
+      }
+      for (int i = 0;i < children.length;i++)
+      {
+         sorted[i] = tmp[i];
+      }
+
+      //
+      this.lastModified = lastModified;
+      this.length = length;
+      this.size = size;
+      this.names = a;
+      this.parents = b;
+      this.dirs = c;
+      this.times = d;
+      this.sizes = e;
+      this.offsets = offsets;
+      this.children = children;
+      this.sorted = sorted;
+   }
+
+   /**
+    * Returns the child of a path with the specified name or -1.
+    *
+    * @param index the path index
+    * @param name the child name
+    * @return the child index
+    */
+   int getChild(int index, String name)
+   {
+      int low = offsets[index];
+      int high = offsets[index + 1] - 1;
+      while (low <= high)
+      {
+         int mid = (low + high) >>> 1;
+         int cmp = names[sorted[mid]].compareTo(name);
+         if (cmp < 0)
+         {
+            low = mid + 1;
+         }
+         else if (cmp > 0)
+         {
+            high = mid - 1;
+         }
+         else
+         {
+            return sorted[mid];
+         }
+      }
+      return -1;
+   }
+}
@@ -19,18 +19,8 @@
 
 package org.juzu.impl.spi.fs.jar;
 
-import org.juzu.impl.utils.Content;
-import org.juzu.impl.utils.Spliterator;
-import org.juzu.impl.utils.Tools;
-
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
-import java.nio.charset.Charset;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.jar.JarEntry;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class JarPath
@@ -42,8 +32,8 @@ public class JarPath
    /** . */
    final JarPath parent;
 
-   /** The name as in the jar entry. */
-   final String entryName;
+   /** The position in the index. */
+   final int index;
 
    /** The name. */
    final String name;
@@ -51,129 +41,44 @@ public class JarPath
    /** . */
    final boolean dir;
 
-   /** . */
-   URL url;
-
-   /** The optional attached entry. */
-   private JarEntry entry;
+   /** The name as in the jar entry. */
+   private String entryName;
 
    /** . */
-   private LinkedHashMap<String, JarPath> children;
+   private URL url;
 
-   public JarPath(JarFileSystem owner)
+   JarPath(JarFileSystem owner, JarPath parent, int index)
    {
-      this.entryName = "";
-      this.name = "";
-      this.dir = true;
-      this.entry = null;
-      this.children = null;
-      this.parent = null;
       this.owner = owner;
-   }
-
-   public JarPath(JarFileSystem owner, JarPath parent, String entryName, String name, boolean dir)
-   {
       this.parent = parent;
-      this.entryName = entryName;
-      this.name = name;
-      this.dir = dir;
-      this.children = null;
-      this.owner = owner;
-   }
-
-   Iterator<JarPath> getChildren()
-   {
-      if (children == null || children.isEmpty())
-      {
-         return Collections.<JarPath>emptyList().iterator();
-      }
-      else
-      {
-         return children.values().iterator();
-      }
-   }
-
-   JarPath getChild(String name)
-   {
-      if (children == null || children.isEmpty())
-      {
-         return null;
-      }
-      else
-      {
-         return children.get(name);
-      }
-   }
-
-   URL getURL() throws IOException
-   {
-      if (url == null)
-      {
-         url = new URL("jar:" + owner.jarURL + "!/" + entryName);
-      }
-      return url;
+      this.index = index;
+      this.name = owner.index.names[index];
+      this.dir = owner.index.dirs[index];
    }
 
-   void append(JarEntry entry)
+   String getEntryName()
    {
-      String entryName = entry.getName();
-      boolean dir = entryName.charAt(entryName.length() - 1) == '/';
-      String path = entryName.substring(0, entryName.length() - (dir ? 1 : 0));
-      Iterator<String> names = new Spliterator(path, '/');
-      JarPath current = this;
-      StringBuilder sb = new StringBuilder();
-      while (true)
+      if (entryName == null)
       {
-         String name = names.next();
-         sb.append(name);
-
-         if (current.children == null)
-         {
-            current.children = new LinkedHashMap<String, JarPath>();
-         }
-         JarPath existing = current.children.get(name);
-
-         if (names.hasNext())
+         if (parent == null)
          {
-            sb.append('/');
-            if (existing == null)
-            {
-               current.children.put(name, existing = new JarPath(owner, current, sb.toString(), name, true));
-            }
-            current = existing;
+            entryName = "";
          }
          else
          {
-            if (existing == null)
-            {
-               if (dir)
-               {
-                  sb.append('/');
-               }
-               current.children.put(name, existing = new JarPath(owner, current, sb.toString(), name, dir));
-               existing.entry = entry;
-            }
-            else
-            {
-               if (dir != existing.dir)
-               {
-                  throw new AssertionError();
-               }
-               if (existing.entry != null)
-               {
-                  throw new AssertionError();
-               }
-               existing.entry = entry;
-            }
-            break;
+            String s = parent.getEntryName() + name;
+            entryName = dir ? s + "/" : s;
          }
       }
+      return entryName;
    }
 
-   Content getContent() throws IOException
+   URL getURL() throws IOException
    {
-      InputStream in = owner.jar.getInputStream(entry);
-      byte[] bytes = Tools.bytes(in);
-      return new Content(entry.getTime(), bytes, Charset.defaultCharset());
+      if (url == null)
+      {
+         url = new URL("jar:" + owner.jarURL + "!/" + getEntryName());
+      }
+      return url;
    }
 }
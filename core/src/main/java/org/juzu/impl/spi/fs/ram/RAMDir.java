@@ -21,21 +21,28 @@ package org.juzu.impl.spi.fs.ram;
 
 import org.juzu.impl.utils.Content;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
-/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+/**
+ * A directory. The children are held by an immutable map replaced on each modification, so the children can
+ * be read and iterated without locking while the directory is modified.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
 public class RAMDir extends RAMPath
 {
 
    /** . */
-   final LinkedHashMap<String, RAMPath> children;
+   volatile Map<String, RAMPath> children;
 
    /** . */
-   private long lastModified;
+   private volatile long lastModified;
 
    public RAMDir()
    {
-      this.children = new LinkedHashMap<String, RAMPath>();
+      this.children = Collections.emptyMap();
       this.lastModified = System.currentTimeMillis();
    }
 
@@ -44,10 +51,20 @@ public class RAMDir extends RAMPath
       super(parent, name);
 
       //
-      this.children = new LinkedHashMap<String, RAMPath>();
+      this.children = Collections.emptyMap();
    }
 
    public RAMFile addFile(String name)
+   {
+      return (RAMFile)add(name, false);
+   }
+
+   public RAMDir addDir(String name)
+   {
+      return (RAMDir)add(name, true);
+   }
+
+   private RAMPath add(String name, boolean dir)
    {
       if (name == null)
       {
@@ -57,36 +74,30 @@ public class RAMDir extends RAMPath
       {
          throw new IllegalArgumentException("Name must not container '/'");
       }
-      if (children.containsKey(name))
-      {
-         throw new IllegalStateException();
-      }
 
       //
-      RAMFile dir = new RAMFile(this, name);
-      children.put(name, dir);
-      return dir;
+      synchronized (this)
+      {
+         if (children.containsKey(name))
+         {
+            throw new IllegalStateException();
+         }
+         RAMPath child = dir ? new RAMDir(this, name) : new RAMFile(this, name);
+         LinkedHashMap<String, RAMPath> copy = new LinkedHashMap<String, RAMPath>(children);
+         copy.put(name, child);
+         children = Collections.unmodifiableMap(copy);
+         return child;
+      }
    }
 
-   public RAMDir addDir(String name)
+   synchronized void remove(String name)
    {
-      if (name == null)
-      {
-         throw new NullPointerException();
-      }
-      if (name.indexOf('/') != -1)
-      {
-         throw new IllegalArgumentException("Name must not container '/'");
-      }
       if (children.containsKey(name))
       {
-         throw new IllegalStateException();
+         LinkedHashMap<String, RAMPath> copy = new LinkedHashMap<String, RAMPath>(children);
+         copy.remove(name);
+         children = Collections.unmodifiableMap(copy);
       }
-
-      //
-      RAMDir dir = new RAMDir(this, name);
-      children.put(name, dir);
-      return dir;
    }
 
    @Override
@@ -118,13 +129,18 @@ public class RAMDir extends RAMPath
       return null;
    }
 
+   /**
+    * Returns a snapshot of the children, it is not affected by the subsequent modifications of the directory.
+    *
+    * @return the children
+    */
    public Iterable<RAMPath> getChildren()
    {
       return children.values();
    }
 
-   public void clear()
+   public synchronized void clear()
    {
-      children.clear();
+      children = Collections.emptyMap();
    }
 }
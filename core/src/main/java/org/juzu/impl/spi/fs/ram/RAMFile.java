@@ -28,7 +28,7 @@ public class RAMFile extends RAMPath
 {
 
    /** . */
-   private Content content;
+   private volatile Content content;
 
    public RAMFile(RAMDir parent, String name)
    {
@@ -45,7 +45,7 @@ public class RAMFile extends RAMPath
    }
 
    @Override
-   public void touch()
+   public synchronized void touch()
    {
       content = content.touch();
    }
@@ -58,7 +58,10 @@ public class RAMFile extends RAMPath
       }
 
       //
-      this.content = content;
+      synchronized (this)
+      {
+         this.content = content;
+      }
 
       //
       return this;
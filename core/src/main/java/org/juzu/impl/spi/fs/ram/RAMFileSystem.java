@@ -43,6 +43,12 @@ public class RAMFileSystem extends ReadWriteFileSystem<RAMPath>
       this.contextURL = new URL("juzu", null, 0, "/", new RAMURLStreamHandler(this));
    }
 
+   @Override
+   public boolean isConcurrent()
+   {
+      return true;
+   }
+
    @Override
    public RAMDir addDir(RAMPath parent, String name) throws IOException
    {
@@ -83,12 +89,33 @@ public class RAMFileSystem extends ReadWriteFileSystem<RAMPath>
 
    public Iterator<RAMPath> getChildren(RAMPath dir) throws IOException
    {
-      return dir.getChildren().iterator();
+      final Iterator<RAMPath> i = dir.getChildren().iterator();
+      return new Iterator<RAMPath>()
+      {
+         RAMPath current;
+         public boolean hasNext()
+         {
+            return i.hasNext();
+         }
+         public RAMPath next()
+         {
+            return current = i.next();
+         }
+         public void remove()
+         {
+            if (current == null)
+            {
+               throw new IllegalStateException();
+            }
+            current.del();
+            current = null;
+         }
+      };
    }
 
    public RAMPath getChild(RAMPath dir, String name) throws IOException
    {
-      return ((RAMDir)dir).children.get(name);
+      return ((RAMDir)dir).getChild(name);
    }
 
    public boolean isDir(RAMPath path) throws IOException
@@ -29,7 +29,7 @@ public abstract class RAMPath
    private final String name;
 
    /** . */
-   private RAMDir parent;
+   private volatile RAMDir parent;
 
    public RAMPath()
    {
@@ -94,13 +94,14 @@ public abstract class RAMPath
       {
          throw new UnsupportedOperationException("Cannot remove root file");
       }
+      RAMDir parent = this.parent;
       if (parent == null)
       {
          throw new IllegalStateException("Cannot remove removed file");
       }
 
       //
-      parent.children.remove(name);
-      parent = null;
+      parent.remove(name);
+      this.parent = null;
    }
 }
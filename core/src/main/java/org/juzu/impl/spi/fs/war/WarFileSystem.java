@@ -25,10 +25,8 @@ import org.juzu.impl.utils.Tools;
 
 import javax.portlet.PortletContext;
 import javax.servlet.ServletContext;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
@@ -36,7 +34,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public abstract class WarFileSystem extends ReadFileSystem<String>
@@ -45,7 +46,24 @@ public abstract class WarFileSystem extends ReadFileSystem<String>
    /** . */
    private final String mountPoint;
 
+   /** The directory index in snapshot mode, it maps a directory to its children by name. */
+   private final ConcurrentHashMap<String, Map<String, String>> index;
+
    public WarFileSystem(String mountPoint) throws NullPointerException
+   {
+      this(mountPoint, false);
+   }
+
+   /**
+    * Create a war file system. In snapshot mode the children of a directory are listed once and indexed
+    * by name, the file system does not see the changes until it is invalidated, this is suited for a war that
+    * does not change or for the duration of an operation.
+    *
+    * @param mountPoint the mount point
+    * @param snapshot the snapshot mode
+    * @throws NullPointerException if the mount point is null
+    */
+   public WarFileSystem(String mountPoint, boolean snapshot) throws NullPointerException
    {
       if (mountPoint == null)
       {
@@ -58,6 +76,39 @@ public abstract class WarFileSystem extends ReadFileSystem<String>
 
       //
       this.mountPoint = mountPoint.substring(0, mountPoint.length() - 1);
+      this.index = snapshot ? new ConcurrentHashMap<String, Map<String, String>>() : null;
+   }
+
+   public boolean isSnapshot()
+   {
+      return index != null;
+   }
+
+   /**
+    * Discard the directory index so the next accesses see the current state of the war.
+    */
+   public void invalidate()
+   {
+      if (index != null)
+      {
+         index.clear();
+      }
+   }
+
+   private Map<String, String> getIndex(String dir) throws IOException
+   {
+      Map<String, String> children = index.get(dir);
+      if (children == null)
+      {
+         Collection<String> resourcePaths = getResourcePaths(dir);
+         children = new LinkedHashMap<String, String>(resourcePaths.size() * 2);
+         for (String child : resourcePaths)
+         {
+            children.put(getName(child), child);
+         }
+         index.put(dir, children = Collections.unmodifiableMap(children));
+      }
+      return children;
    }
 
    @Override
@@ -115,12 +166,23 @@ public abstract class WarFileSystem extends ReadFileSystem<String>
    @Override
    public Iterator<String> getChildren(String dir) throws IOException
    {
-      return getResourcePaths(dir).iterator();
+      if (index != null)
+      {
+         return getIndex(dir).values().iterator();
+      }
+      else
+      {
+         return getResourcePaths(dir).iterator();
+      }
    }
 
    @Override
    public String getChild(String dir, String name) throws IOException
    {
+      if (index != null)
+      {
+         return getIndex(dir).get(name);
+      }
       for (Iterator<String> i = getChildren(dir);i.hasNext();)
       {
          String child = i.next();
@@ -148,26 +210,21 @@ public abstract class WarFileSystem extends ReadFileSystem<String>
    @Override
    public Content getContent(String file) throws IOException
    {
+      // Read the file directly when the war is exploded
+      File f = getFile(file);
+      if (f != null && f.isFile())
+      {
+         return new Content(f.lastModified(), Tools.bytes(f), Charset.defaultCharset());
+      }
+
+      //
       URL url = getResource(file);
       if (url != null)
       {
          URLConnection conn = url.openConnection();
          long lastModified = conn.getLastModified();
-         InputStream in = conn.getInputStream();
-         try
-         {
-            ByteArrayOutputStream content = new ByteArrayOutputStream();
-            byte[] buffer = new byte[256];
-            for (int l = in.read(buffer);l != -1;l = in.read(buffer))
-            {
-               content.write(buffer, 0, l);
-            }
-            return new Content(lastModified, content.toByteArray(), Charset.defaultCharset());
-         }
-         finally
-         {
-            Tools.safeClose(in);
-         }
+         byte[] bytes = Tools.bytes(conn.getInputStream(), conn.getContentLength());
+         return new Content(lastModified, bytes, Charset.defaultCharset());
       }
       else
       {
@@ -230,9 +287,14 @@ public abstract class WarFileSystem extends ReadFileSystem<String>
       return create(context, "/");
    }
 
-   public static WarFileSystem create(final ServletContext servletContext, String mountPoint)
+   public static WarFileSystem create(ServletContext servletContext, String mountPoint)
+   {
+      return create(servletContext, mountPoint, false);
+   }
+
+   public static WarFileSystem create(final ServletContext servletContext, String mountPoint, boolean snapshot)
    {
-      return new WarFileSystem(mountPoint)
+      return new WarFileSystem(mountPoint, snapshot)
       {
          @Override
          protected Set<String> doGetResourcePaths(String path) throws IOException
@@ -265,9 +327,14 @@ public abstract class WarFileSystem extends ReadFileSystem<String>
       return create(portletContext, "/");
    }
 
-   public static WarFileSystem create(final PortletContext portletContext, String mountPoint)
+   public static WarFileSystem create(PortletContext portletContext, String mountPoint)
+   {
+      return create(portletContext, mountPoint, false);
+   }
+
+   public static WarFileSystem create(final PortletContext portletContext, String mountPoint, boolean snapshot)
    {
-      return new WarFileSystem(mountPoint)
+      return new WarFileSystem(mountPoint, snapshot)
       {
          @Override
          protected Set<String> doGetResourcePaths(String path) throws IOException
@@ -23,7 +23,9 @@ import org.juzu.Response;
 import org.juzu.request.Phase;
 import org.juzu.URLBuilder;
 import org.juzu.impl.spi.request.MimeBridge;
+import org.juzu.impl.utils.ChunkedOutputStream;
 import org.juzu.metadata.ControllerMethod;
+import org.juzu.text.OutputStreamPrinter;
 import org.juzu.text.Printer;
 import org.juzu.text.WriterPrinter;
 
@@ -31,31 +33,75 @@ import javax.portlet.BaseURL;
 import javax.portlet.MimeResponse;
 import javax.portlet.PortletRequest;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-abstract class PortletMimeBridge<Rq extends PortletRequest, Rs extends MimeResponse, R extends Response.Mime> extends PortletRequestBridge<Rq, Rs, R> implements MimeBridge<R>
+abstract class PortletMimeBridge<Rq extends PortletRequest, Rs extends MimeResponse, R extends Response.Mime> extends PortletRequestBridge<Rq, Rs, R> implements MimeBridge<R>, URLTemplate.URLFactory
 {
 
+   /** . */
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
    /** . */
    private final Printer printer;
 
    /** . */
    private StringBuilder writer;
 
+   /** . */
+   private final OutputStreamPrinter stream;
+
+   /** True when the response is flushed to the container while it is produced. */
+   protected final boolean streaming;
+
+   /** The url templates of the controller methods for this request. */
+   private Map<ControllerMethod, URLTemplate> urlTemplates;
+
    PortletMimeBridge(Rq request, Rs response, boolean buffer) throws IOException
+   {
+      this(request, response, buffer, 0);
+   }
+
+   /**
+    * Create a mime bridge.
+    *
+    * @param request the request
+    * @param response the response
+    * @param buffer true when the whole response is buffered until the bridge is committed
+    * @param chunkSize when the response is not buffered and the chunk size is positive, the response is streamed
+    * to the container each time a chunk of this size has been written
+    * @throws IOException any io exception
+    */
+   PortletMimeBridge(Rq request, Rs response, boolean buffer, int chunkSize) throws IOException
    {
       super(request, response);
 
+      //
+      this.streaming = !buffer && chunkSize > 0;
+
       //
       if (buffer)
       {
          this.writer = new StringBuilder();
          this.printer = new WriterPrinter(writer);
+         this.stream = null;
       }
       else
       {
+         // Write bytes directly so the pre encoded template text is not encoded again
+         String encoding = response.getCharacterEncoding();
+         Charset charset = encoding != null ? Charset.forName(encoding) : UTF_8;
+         OutputStream out = response.getPortletOutputStream();
+         if (chunkSize > 0)
+         {
+            out = new ChunkedOutputStream(out, chunkSize);
+         }
          this.writer = null;
-         this.printer = new WriterPrinter(response.getWriter());
+         this.stream = new OutputStreamPrinter(out, charset);
+         this.printer = stream;
       }
    }
    
@@ -66,6 +112,10 @@ abstract class PortletMimeBridge<Rq extends PortletRequest, Rs extends MimeRespo
          response.getWriter().write(writer.toString());
          writer.setLength(0);
       }
+      else
+      {
+         stream.flush();
+      }
    }
 
    public Printer getPrinter()
@@ -74,6 +124,22 @@ abstract class PortletMimeBridge<Rq extends PortletRequest, Rs extends MimeRespo
    }
 
    public URLBuilder createURLBuilder(ControllerMethod method)
+   {
+      // The portlet url of a method is created once per request, the builders fill its template
+      if (urlTemplates == null)
+      {
+         urlTemplates = new HashMap<ControllerMethod, URLTemplate>();
+      }
+      URLTemplate template = urlTemplates.get(method);
+      if (template == null)
+      {
+         template = new URLTemplate(this, method);
+         urlTemplates.put(method, template);
+      }
+      return template.builder();
+   }
+
+   public BaseURL createURL(ControllerMethod method)
    {
       Phase phase = method.getPhase();
       BaseURL url;
@@ -92,7 +158,7 @@ abstract class PortletMimeBridge<Rq extends PortletRequest, Rs extends MimeRespo
             throw new AssertionError("Unexpected phase " + phase);
       }
       url.setParameter("op", method.getId());
-      return new URLBuilderImpl(url);
+      return url;
    }
 
    public void setResponse(Response.Mime response) throws IllegalStateException, IOException
@@ -35,6 +35,11 @@ public class PortletRenderBridge extends PortletMimeBridge<RenderRequest, Render
       super(request, response, buffer);
    }
 
+   public PortletRenderBridge(RenderRequest request, RenderResponse response, boolean buffer, int chunkSize) throws IOException
+   {
+      super(request, response, buffer, chunkSize);
+   }
+
    public void setTitle(String title)
    {
       response.setTitle(title);
@@ -43,18 +48,29 @@ public class PortletRenderBridge extends PortletMimeBridge<RenderRequest, Render
    @Override
    public void setResponse(Response.Mime response) throws IllegalStateException, IOException
    {
-      super.setResponse(response);
-
-      // Improve that because it will not work on streaming portals...
-      // for now it's OK
+      // The title is set before the content is sent so it works with streaming portals, it is known
+      // at this point when the template declares a static title
+      String title = null;
       if (response instanceof Response.Mime.Render)
       {
-         Response.Mime.Render render = (Response.Mime.Render)response;
-         String title = render.getTitle();
+         title = ((Response.Mime.Render)response).getTitle();
          if (title != null)
          {
             setTitle(title);
          }
       }
+
+      //
+      super.setResponse(response);
+
+      // A title resolved during the rendering cannot be taken in account once the content was streamed
+      if (!streaming && response instanceof Response.Mime.Render)
+      {
+         String rendered = ((Response.Mime.Render)response).getTitle();
+         if (rendered != null && !rendered.equals(title))
+         {
+            setTitle(rendered);
+         }
+      }
    }
 }
@@ -35,6 +35,11 @@ public class PortletResourceBridge extends PortletMimeBridge<ResourceRequest, Re
       super(request, response, buffer);
    }
 
+   public PortletResourceBridge(ResourceRequest request, ResourceResponse response, boolean buffer, int chunkSize) throws IOException
+   {
+      super(request, response, buffer, chunkSize);
+   }
+
    @Override
    public void setResponse(Response.Mime response) throws IllegalStateException, IOException
    {
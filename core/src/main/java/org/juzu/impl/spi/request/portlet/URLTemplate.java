@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.request.portlet;
+
+import org.juzu.URLBuilder;
+import org.juzu.metadata.ControllerMethod;
+import org.juzu.metadata.ControllerParameter;
+
+import javax.portlet.BaseURL;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>A template for the urls of a controller method during a request. The template is obtained by creating a
+ * single portlet url whose argument parameters are set to markers, the builders created by the template fill
+ * the parameter values between the fragments of the url with string concatenation instead of creating a
+ * portlet url.</p>
+ *
+ * <p>A marker is followed by a probe value containing characters that must be encoded, the template is used
+ * only when the container encodes the probe as the template would, otherwise the builders fall back to
+ * portlet urls. They also fall back to portlet urls when a parameter is not an argument parameter, has
+ * several values or is missing.</p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class URLTemplate
+{
+
+   /** . */
+   private static final String PROBE = " &=?/%+\u00e9";
+
+   /** . */
+   private static final String ENCODED_PROBE = encode(PROBE);
+
+   /** . */
+   private final URLFactory factory;
+
+   /** . */
+   private final ControllerMethod method;
+
+   /** The argument parameter names. */
+   private final String[] names;
+
+   /** The form of the url, null when the template cannot be used. */
+   private final Form plain;
+
+   /** The XML escaped form of the url, null when the template cannot be used. */
+   private final Form escaped;
+
+   URLTemplate(URLFactory factory, ControllerMethod method)
+   {
+      List<ControllerParameter> parameters = method.getArgumentParameters();
+      String[] names = new String[parameters.size()];
+      String[] markers = new String[names.length];
+      String nonce = Integer.toHexString(System.identityHashCode(this));
+      BaseURL url = factory.createURL(method);
+      for (int i = 0;i < names.length;i++)
+      {
+         names[i] = parameters.get(i).getName();
+         markers[i] = "juzu" + nonce + "x" + i + "x";
+         url.setParameter(names[i], markers[i] + PROBE);
+      }
+
+      //
+      Form plain = Form.parse(url.toString(), markers);
+      Form escaped;
+      try
+      {
+         StringWriter writer = new StringWriter();
+         url.write(writer, true);
+         escaped = Form.parse(writer.toString(), markers);
+      }
+      catch (IOException e)
+      {
+         escaped = null;
+      }
+
+      //
+      this.factory = factory;
+      this.method = method;
+      this.names = names;
+      this.plain = plain;
+      this.escaped = escaped;
+   }
+
+   URLBuilder builder()
+   {
+      if (plain == null && escaped == null)
+      {
+         return new URLBuilderImpl(factory.createURL(method));
+      }
+      else
+      {
+         return new Builder();
+      }
+   }
+
+   /**
+    * Creates the portlet urls of controller methods.
+    */
+   interface URLFactory
+   {
+
+      BaseURL createURL(ControllerMethod method);
+
+   }
+
+   private static String encode(String s)
+   {
+      try
+      {
+         return URLEncoder.encode(s, "UTF-8");
+      }
+      catch (UnsupportedEncodingException e)
+      {
+         throw new AssertionError(e);
+      }
+   }
+
+   /**
+    * The fragments of an url separated by the parameter values.
+    */
+   private static class Form
+   {
+
+      /** . */
+      private final String[] fragments;
+
+      /** The index of the parameter following each fragment. */
+      private final int[] order;
+
+      /** True when the container encodes spaces as <code>+</code> otherwise as <code>%20</code>. */
+      private final boolean plus;
+
+      private Form(String[] fragments, int[] order, boolean plus)
+      {
+         this.fragments = fragments;
+         this.order = order;
+         this.plus = plus;
+      }
+
+      static Form parse(String url, String[] markers)
+      {
+         int length = markers.length;
+         long[] positions = new long[length];
+         Boolean plus = null;
+         for (int i = 0;i < length;i++)
+         {
+            int position = url.indexOf(markers[i]);
+            if (position == -1 || url.lastIndexOf(markers[i]) != position)
+            {
+               // The parameter is missing or the container repeats it
+               return null;
+            }
+            int from = position + markers[i].length();
+            boolean b;
+            if (url.startsWith(ENCODED_PROBE, from))
+            {
+               b = true;
+            }
+            else if (url.startsWith(ENCODED_PROBE.replace("+", "%20"), from))
+            {
+               b = false;
+            }
+            else
+            {
+               return null;
+            }
+            if (plus != null && plus != b)
+            {
+               return null;
+            }
+            plus = b;
+            positions[i] = ((long)position << 32) | i;
+         }
+
+         // Sort the markers by position
+         Arrays.sort(positions);
+         String[] fragments = new String[length + 1];
+         int[] order = new int[length];
+         int from = 0;
+         for (int i = 0;i < length;i++)
+         {
+            int position = (int)(positions[i] >>> 32);
+            order[i] = (int)positions[i];
+            fragments[i] = url.substring(from, position);
+            from = position + markers[order[i]].length() + (plus ? ENCODED_PROBE.length() : ENCODED_PROBE.replace("+", "%20").length());
+         }
+         fragments[length] = url.substring(from);
+         return new Form(fragments, order, plus == null || plus);
+      }
+
+      String format(String[] values)
+      {
+         StringBuilder sb = new StringBuilder(fragments[0]);
+         for (int i = 0;i < order.length;i++)
+         {
+            String encoded = encode(values[order[i]]);
+            sb.append(plus ? encoded : encoded.replace("+", "%20"));
+            sb.append(fragments[i + 1]);
+         }
+         return sb.toString();
+      }
+   }
+
+   private class Builder implements URLBuilder
+   {
+
+      /** . */
+      private final String[] values = new String[names.length];
+
+      /** . */
+      private Boolean escapeXML;
+
+      /** The portlet url builder once the template cannot be used anymore. */
+      private URLBuilderImpl fallback;
+
+      public URLBuilder setParameter(String name, String value) throws NullPointerException
+      {
+         if (name == null)
+         {
+            throw new NullPointerException("No null name accepted");
+         }
+         int index;
+         if (fallback == null && value != null && (index = indexOf(name)) != -1)
+         {
+            values[index] = value;
+         }
+         else
+         {
+            fallback().setParameter(name, value);
+         }
+         return this;
+      }
+
+      public URLBuilder setParameter(String name, String[] value) throws NullPointerException
+      {
+         if (name == null)
+         {
+            throw new NullPointerException("No null name accepted");
+         }
+         int index;
+         if (fallback == null && value != null && value.length == 1 && value[0] != null && (index = indexOf(name)) != -1)
+         {
+            values[index] = value[0];
+         }
+         else
+         {
+            fallback().setParameter(name, value);
+         }
+         return this;
+      }
+
+      public URLBuilder escapeXML(Boolean escapeXML)
+      {
+         this.escapeXML = escapeXML;
+         if (fallback != null)
+         {
+            fallback.escapeXML(escapeXML);
+         }
+         return this;
+      }
+
+      private int indexOf(String name)
+      {
+         for (int i = 0;i < names.length;i++)
+         {
+            if (names[i].equals(name))
+            {
+               return i;
+            }
+         }
+         return -1;
+      }
+
+      private URLBuilderImpl fallback()
+      {
+         if (fallback == null)
+         {
+            fallback = new URLBuilderImpl(factory.createURL(method));
+            fallback.escapeXML(escapeXML);
+            for (int i = 0;i < names.length;i++)
+            {
+               if (values[i] != null)
+               {
+                  fallback.setParameter(names[i], values[i]);
+               }
+            }
+         }
+         return fallback;
+      }
+
+      @Override
+      public String toString()
+      {
+         if (fallback == null)
+         {
+            Form form = escapeXML != null && escapeXML ? escaped : plain;
+            if (form != null && !Arrays.asList(values).contains(null))
+            {
+               return form.format(values);
+            }
+         }
+         return fallback().toString();
+      }
+   }
+}
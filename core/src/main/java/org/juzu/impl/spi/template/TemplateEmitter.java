@@ -54,4 +54,14 @@ public abstract class TemplateEmitter
 
    public abstract void tag(String tagName, Map<String, String> args);
 
+   /**
+    * Signals the template the following sections come from when a template is inlined, the default
+    * implementation does nothing.
+    *
+    * @param templateId the id of the inlined template or null for the emitted template
+    */
+   public void setOrigin(String templateId)
+   {
+   }
+
 }
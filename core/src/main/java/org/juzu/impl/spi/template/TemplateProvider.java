@@ -19,6 +19,9 @@
 
 package org.juzu.impl.spi.template;
 
+import javax.lang.model.util.Elements;
+import java.util.Map;
+
 /**
  * A provider for templating system.
  *
@@ -27,10 +30,50 @@ package org.juzu.impl.spi.template;
 public abstract class TemplateProvider
 {
 
+   /**
+    * Returns the name of the resource containing the bytecode of a class compiled ahead of time for a template.
+    *
+    * @param templateName the template simple name
+    * @param className the class name
+    * @return the resource name
+    */
+   public static String getBytecodeResourceName(String templateName, String className)
+   {
+      return templateName + "." + className + ".bytecode";
+   }
+
    public abstract Class<? extends TemplateStub> getTemplateStubType();
 
    public abstract TemplateEmitter createEmitter();
 
    public abstract String getTargetExtension();
 
+   /**
+    * Returns true when the emitter of this provider generates Java code that is the body of the template stub class,
+    * the template is then compiled along with the stub and no script is generated. The default implementation
+    * returns false.
+    *
+    * @return true when the emitter generates the stub body
+    */
+   public boolean isStubSource()
+   {
+      return false;
+   }
+
+   /**
+    * Compiles ahead of time a script generated by the emitter of this provider. The default implementation
+    * returns null which means that the provider does not support ahead of time compilation and that the script
+    * will be compiled at runtime.
+    *
+    * @param script the script to compile
+    * @param elements the elements of the current compilation used to resolve the types that are compiled along with
+    *                 the script and cannot be loaded yet, it can be null
+    * @return the compiled class bytes keyed by class name or null
+    * @throws Exception any exception that prevented the compilation
+    */
+   public Map<String, byte[]> compile(String script, Elements elements) throws Exception
+   {
+      return null;
+   }
+
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.gtmpl;
+
+import org.juzu.impl.spi.template.TemplateProvider;
+import org.juzu.impl.utils.Tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * Loads the classes of a template script compiled ahead of time. The script classes are declared in the default
+ * package, so each template gets its own class loader, like a script compiled at runtime gets its own
+ * groovy class loader.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class BytecodeClassLoader extends ClassLoader
+{
+
+   /** . */
+   private final String templatePath;
+
+   /** . */
+   private final String templateName;
+
+   public BytecodeClassLoader(ClassLoader parent, String templateId)
+   {
+      super(parent);
+
+      //
+      int pos = templateId.lastIndexOf('.');
+      this.templatePath = pos == -1 ? "" : templateId.substring(0, pos).replace('.', '/') + "/";
+      this.templateName = templateId.substring(pos + 1);
+   }
+
+   public URL getBytecode(String className)
+   {
+      return getParent().getResource(templatePath + TemplateProvider.getBytecodeResourceName(templateName, className));
+   }
+
+   @Override
+   protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+   {
+      Class<?> clazz = findLoadedClass(name);
+      if (clazz == null)
+      {
+         URL bytecode = getBytecode(name);
+         if (bytecode != null)
+         {
+            InputStream in = null;
+            try
+            {
+               in = bytecode.openStream();
+               byte[] bytes = Tools.bytes(in);
+               clazz = defineClass(name, bytes, 0, bytes.length);
+            }
+            catch (IOException e)
+            {
+               throw new ClassNotFoundException("Could not load class " + name, e);
+            }
+            finally
+            {
+               Tools.safeClose(in);
+            }
+         }
+         else
+         {
+            return super.loadClass(name, resolve);
+         }
+      }
+      if (resolve)
+      {
+         resolveClass(clazz);
+      }
+      return clazz;
+   }
+}
@@ -25,6 +25,9 @@ import org.juzu.text.Location;
 public class Foo
 {
 
+   /** The id of the template the position belongs to or null for the template of the script. */
+   private final String templateId;
+
    /** . */
    private final Location position;
 
@@ -33,10 +36,21 @@ public class Foo
 
    public Foo(Location position, String value)
    {
+      this(null, position, value);
+   }
+
+   public Foo(String templateId, Location position, String value)
+   {
+      this.templateId = templateId;
       this.position = position;
       this.value = value;
    }
 
+   public String getTemplateId()
+   {
+      return templateId;
+   }
+
    public Location getPosition()
    {
       return position;
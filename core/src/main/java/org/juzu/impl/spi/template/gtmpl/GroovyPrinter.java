@@ -22,6 +22,7 @@ package org.juzu.impl.spi.template.gtmpl;
 import groovy.lang.GString;
 import groovy.lang.GroovyInterceptable;
 import groovy.lang.GroovyObjectSupport;
+import org.codehaus.groovy.runtime.GStringImpl;
 import org.codehaus.groovy.runtime.InvokerInvocationException;
 import org.juzu.template.TemplateRenderContext;
 import org.juzu.text.CharArray;
@@ -35,6 +36,9 @@ import java.util.Locale;
 public class GroovyPrinter extends GroovyObjectSupport implements GroovyInterceptable
 {
 
+   /** The strings of a GString made of a single value. */
+   private static final String[] VALUE_STRINGS = {"", ""};
+
    /** . */
    final TemplateRenderContext renderContext;
 
@@ -67,7 +71,12 @@ public class GroovyPrinter extends GroovyObjectSupport implements GroovyIntercep
          {
             try
             {
-               if ("print".equals(name))
+               if ("printValue".equals(name))
+               {
+                  printValue(array[0]);
+                  return null;
+               }
+               else if ("print".equals(name))
                {
                   print(array[0]);
                   return null;
@@ -160,4 +169,35 @@ public class GroovyPrinter extends GroovyObjectSupport implements GroovyIntercep
          renderContext.getPrinter().write(toString(o));
       }
    }
+
+   /**
+    * Print the value of a template expression, the output is the same than the output of the value interpolated
+    * in a GString: the common types are printed directly and any other value is printed through a GString.
+    *
+    * @param o the value to print
+    * @throws IOException any io exception
+    */
+   public final void printValue(Object o) throws IOException
+   {
+      if (o instanceof String)
+      {
+         renderContext.getPrinter().write((String)o);
+      }
+      else if (o == null)
+      {
+         renderContext.getPrinter().write("null");
+      }
+      else if (o instanceof Number || o instanceof Boolean || o instanceof Character)
+      {
+         renderContext.getPrinter().write(o.toString());
+      }
+      else if (o instanceof Date || o instanceof CharArray || o instanceof GString)
+      {
+         print(o);
+      }
+      else
+      {
+         renderContext.getPrinter().write(new GStringImpl(new Object[]{o}, VALUE_STRINGS).toString());
+      }
+   }
 }
@@ -30,11 +30,21 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class GroovyTemplateEmitter extends TemplateEmitter
 {
 
+   /** A variable or a property path such as <code>hotel.name</code> . */
+   private static final Pattern PATH = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*(\\.[A-Za-z_$][A-Za-z0-9_$]*)*");
+
+   /** A number or a string literal without interpolation or escape. */
+   private static final Pattern LITERAL = Pattern.compile("-?[0-9]+(\\.[0-9]+)?|'[^'\\\\]*'|\"[^\"\\\\$]*\"");
+
+   /** . */
+   private static final String EXPRESSION_PROLOG = ";out.print(\"${";
+
    /** . */
    private StringBuilder out = new StringBuilder();
 
@@ -62,8 +72,28 @@ public class GroovyTemplateEmitter extends TemplateEmitter
    /** . */
    private final int[] closureCountStack = new int[200];
 
+   /** The start of the current expression in the script. */
+   private int expressionIndex = -1;
+
+   /** . */
+   private final boolean simpleExpressions;
+
+   /** The id of the inlined template being emitted. */
+   private String origin;
+
    public GroovyTemplateEmitter()
    {
+      this(true);
+   }
+
+   /**
+    * Create an emitter.
+    *
+    * @param simpleExpressions false to interpolate every expression in a GString
+    */
+   public GroovyTemplateEmitter(boolean simpleExpressions)
+   {
+      this.simpleExpressions = simpleExpressions;
    }
 
    @Override
@@ -100,8 +130,12 @@ public class GroovyTemplateEmitter extends TemplateEmitter
             Foo text = entry.getValue();
             Location location = text.getPosition();
             builder.append(entry.getKey()).append(':').
-               append("new ").append(Foo.class.getName()).append("(").
-               append("new ").append(Location.class.getName()).append("(").append(location.getCol()).append(',').append(location.getLine()).append("),").
+               append("new ").append(Foo.class.getName()).append("(");
+            if (text.getTemplateId() != null)
+            {
+               builder.append("'").append(text.getTemplateId()).append("',");
+            }
+            builder.append("new ").append(Location.class.getName()).append("(").append(location.getCol()).append(',').append(location.getLine()).append("),").
                append("'");
             Tools.escape(text.getValue(), builder);
             builder.append("')");
@@ -137,6 +171,12 @@ public class GroovyTemplateEmitter extends TemplateEmitter
       };
    }
 
+   @Override
+   public void setOrigin(String templateId)
+   {
+      origin = templateId;
+   }
+
    public void startScriptlet(Location beginPosition)
    {
       pos = beginPosition;
@@ -145,7 +185,7 @@ public class GroovyTemplateEmitter extends TemplateEmitter
    public void appendScriptlet(String scriptlet)
    {
       out.append(scriptlet);
-      locationTable.put(lineNumber, new Foo(pos, scriptlet));
+      locationTable.put(lineNumber, new Foo(origin, pos, scriptlet));
    }
 
    public void endScriptlet()
@@ -158,18 +198,38 @@ public class GroovyTemplateEmitter extends TemplateEmitter
    public void startExpression(Location beginPosition)
    {
       pos = beginPosition;
-      out.append(";out.print(\"${");
+      expressionIndex = out.length();
+      out.append(EXPRESSION_PROLOG);
    }
 
    public void appendExpression(String expr)
    {
       out.append(expr);
-      locationTable.put(lineNumber, new Foo(pos, expr));
+      locationTable.put(lineNumber, new Foo(origin, pos, expr));
    }
 
    public void endExpression()
    {
-      out.append("}\");\n");
+      // A simple expression is printed directly instead of being interpolated in a GString
+      // unless it spans several lines as the script lines must match the line table
+      String expr = out.substring(expressionIndex + EXPRESSION_PROLOG.length());
+      boolean simple = simpleExpressions && expr.indexOf('\n') == -1;
+      expr = expr.trim();
+      if (simple && LITERAL.matcher(expr).matches())
+      {
+         out.setLength(expressionIndex);
+         out.append(";out.print(").append(expr).append(");\n");
+      }
+      else if (simple && PATH.matcher(expr).matches())
+      {
+         out.setLength(expressionIndex);
+         out.append(";out.printValue(").append(expr).append(");\n");
+      }
+      else
+      {
+         out.append("}\");\n");
+      }
+      expressionIndex = -1;
       lineNumber++;
    }
 
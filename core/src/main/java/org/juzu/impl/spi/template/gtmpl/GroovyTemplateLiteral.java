@@ -31,6 +31,21 @@ public abstract class GroovyTemplateLiteral extends GroovyTemplateStub
    {
    }
 
+   @Override
+   protected Class<?> loadScriptClass() throws Exception
+   {
+      // Use the script compiled ahead of time when it exists
+      BytecodeClassLoader loader = new BytecodeClassLoader(getClass().getClassLoader(), templateId);
+      if (loader.getBytecode(SCRIPT_NAME) != null)
+      {
+         return loader.loadClass(SCRIPT_NAME);
+      }
+      else
+      {
+         return super.loadScriptClass();
+      }
+   }
+
    @Override
    public final String getScript()
    {
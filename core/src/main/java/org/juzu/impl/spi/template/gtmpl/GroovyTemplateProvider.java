@@ -19,9 +19,27 @@
 
 package org.juzu.impl.spi.template.gtmpl;
 
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyResourceLoader;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
 import org.juzu.impl.spi.template.TemplateEmitter;
 import org.juzu.impl.spi.template.TemplateProvider;
 import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.impl.utils.Content;
+import org.juzu.impl.utils.Spliterator;
+
+import javax.lang.model.util.Elements;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class GroovyTemplateProvider extends TemplateProvider
@@ -44,4 +62,73 @@ public class GroovyTemplateProvider extends TemplateProvider
    {
       return "groovy";
    }
+
+   @Override
+   public Map<String, byte[]> compile(String script, final Elements elements) throws Exception
+   {
+      CompilerConfiguration config = new CompilerConfiguration();
+      config.setScriptBaseClass(BaseScript.class.getName());
+      GroovyClassLoader loader = new GroovyClassLoader(GroovyTemplateProvider.class.getClassLoader(), config);
+
+      // The types compiled along with the template (such as the controller companions) cannot be loaded,
+      // we provide an empty declaration for them instead, as the script invokes them dynamically, the real type
+      // will be used at runtime
+      if (elements != null)
+      {
+         final RAMFileSystem declarations = new RAMFileSystem();
+         loader.setResourceLoader(new GroovyResourceLoader()
+         {
+            public URL loadGroovySource(String className) throws MalformedURLException
+            {
+               if (elements.getTypeElement(className) != null)
+               {
+                  try
+                  {
+                     return declare(declarations, className);
+                  }
+                  catch (IOException e)
+                  {
+                     throw new UnsupportedOperationException("handle me gracefully", e);
+                  }
+               }
+               else
+               {
+                  return null;
+               }
+            }
+         });
+      }
+
+      //
+      CompilationUnit unit = new CompilationUnit(config, null, loader);
+      unit.addSource(GroovyTemplateStub.SCRIPT_NAME, script);
+      unit.compile(Phases.CLASS_GENERATION);
+
+      // Keep only the classes of the script, they are declared in the default package
+      Map<String, byte[]> classes = new HashMap<String, byte[]>();
+      for (GroovyClass clazz : (List<GroovyClass>)unit.getClasses())
+      {
+         if (clazz.getName().indexOf('.') == -1)
+         {
+            classes.put(clazz.getName(), clazz.getBytes());
+         }
+      }
+      return classes;
+   }
+
+   private URL declare(RAMFileSystem declarations, String className) throws IOException
+   {
+      int pos = className.lastIndexOf('.');
+      String packageName = pos == -1 ? "" : className.substring(0, pos);
+      String simpleName = className.substring(pos + 1);
+      StringBuilder declaration = new StringBuilder();
+      if (packageName.length() > 0)
+      {
+         declaration.append("package ").append(packageName).append(";\n");
+      }
+      declaration.append("class ").append(simpleName).append(" {}\n");
+      RAMPath file = declarations.makeFile(Spliterator.split(packageName, '.'), simpleName + ".groovy");
+      declarations.setContent(file, new Content(System.currentTimeMillis(), declaration));
+      return declarations.getURL(file);
+   }
 }
@@ -36,11 +36,17 @@ import java.util.HashMap;
 public abstract class GroovyTemplateStub extends TemplateStub
 {
 
+   /** The name of the script class. */
+   public static final String SCRIPT_NAME = "myscript";
+
+   /** The name of the class holding the script constants. */
+   public static final String CONSTANTS_NAME = "Constants";
+
    /** . */
    protected final String templateId;
 
-   /** . */
-   private Class<?> scriptClass;
+   /** The compiled script class, published once compiled so it can be used by concurrent renders. */
+   private volatile Class<?> scriptClass;
 
    /** . */
    private HashMap<Integer, Foo> locationTable;
@@ -60,27 +66,49 @@ public abstract class GroovyTemplateStub extends TemplateStub
 
    private Class<?> getScriptClass()
    {
+      Class<?> scriptClass = this.scriptClass;
       if (scriptClass == null)
       {
-         CompilerConfiguration config = new CompilerConfiguration();
-         config.setScriptBaseClass(BaseScript.class.getName());
-         String script = getScript();
-         GroovyCodeSource gcs = new GroovyCodeSource(new ByteArrayInputStream(script.getBytes()), "myscript", "/groovy/shell");
-         GroovyClassLoader loader = new GroovyClassLoader(Thread.currentThread().getContextClassLoader(), config);
-         try
-         {
-            scriptClass = loader.parseClass(gcs, false);
-            Class<?> constants = scriptClass.getClassLoader().loadClass("Constants");
-            locationTable = (HashMap<Integer, Foo>)constants.getField("TABLE").get(null);
-         }
-         catch (Exception e)
+         synchronized (this)
          {
-            throw new UnsupportedOperationException("handle me gracefully", e);
+            scriptClass = this.scriptClass;
+            if (scriptClass == null)
+            {
+               try
+               {
+                  scriptClass = loadScriptClass();
+                  Class<?> constants = scriptClass.getClassLoader().loadClass(CONSTANTS_NAME);
+                  locationTable = (HashMap<Integer, Foo>)constants.getField("TABLE").get(null);
+               }
+               catch (Exception e)
+               {
+                  throw new UnsupportedOperationException("handle me gracefully", e);
+               }
+
+               // Publish the script class after the location table
+               this.scriptClass = scriptClass;
+            }
          }
       }
       return scriptClass;
    }
 
+   /**
+    * Returns the script class, the default implementation compiles the script returned by {@link #getScript()}.
+    *
+    * @return the script class
+    * @throws Exception any exception
+    */
+   protected Class<?> loadScriptClass() throws Exception
+   {
+      CompilerConfiguration config = new CompilerConfiguration();
+      config.setScriptBaseClass(BaseScript.class.getName());
+      String script = getScript();
+      GroovyCodeSource gcs = new GroovyCodeSource(new ByteArrayInputStream(script.getBytes()), SCRIPT_NAME, "/groovy/shell");
+      GroovyClassLoader loader = new GroovyClassLoader(Thread.currentThread().getContextClassLoader(), config);
+      return loader.parseClass(gcs, false);
+   }
+
    public abstract String getScript();
 
    public String getClassName()
@@ -164,7 +192,9 @@ public abstract class GroovyTemplateStub extends TemplateStub
       //
       if (firstItem != null)
       {
-         return new TemplateExecutionException(templateId, firstItem.getPosition(), firstItem.getValue(), t);
+         // The position may belong to an inlined template
+         String id = firstItem.getTemplateId() != null ? firstItem.getTemplateId() : templateId;
+         return new TemplateExecutionException(id, firstItem.getPosition(), firstItem.getValue(), t);
       }
       else
       {
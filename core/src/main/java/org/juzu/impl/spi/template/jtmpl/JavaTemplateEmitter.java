@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.jtmpl;
+
+import org.juzu.impl.spi.template.TemplateEmitter;
+import org.juzu.impl.tags.ParamTag;
+import org.juzu.impl.template.SectionType;
+import org.juzu.template.Renderable;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.CharArray;
+import org.juzu.text.Location;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emits the body of a {@link JavaTemplateStub} subclass. The scriptlets and the expressions are Java code, a
+ * parameter declared with the <code>#{param name=foo type=java.lang.String/}</code> tag is available as a final
+ * local variable of the declared type (<code>java.lang.Object</code> by default). A <code>${...}</code> Java
+ * expression in a tag argument value is evaluated like in a Groovy template, <code>\$</code> is a literal
+ * <code>$</code>.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JavaTemplateEmitter extends TemplateEmitter
+{
+
+   /** . */
+   private static final String RENDER_CONTEXT = TemplateRenderContext.class.getName();
+
+   /** . */
+   private static final String PARAM_TAG = ParamTag.class.getName();
+
+   /** . */
+   private static final String CHAR_ARRAY = CharArray.Simple.class.getCanonicalName();
+
+   /** . */
+   private StringBuilder out = new StringBuilder();
+
+   /** . */
+   private StringBuilder constants = new StringBuilder();
+
+   /** . */
+   private int constantCount = 0;
+
+   public JavaTemplateEmitter()
+   {
+   }
+
+   @Override
+   public String toString()
+   {
+      StringBuilder builder = new StringBuilder();
+      builder.append(constants);
+      builder.append("protected void doRender(final ").append(RENDER_CONTEXT).append(" renderContext) throws Exception\n");
+      builder.append("{\n");
+      builder.append(out);
+      builder.append("}\n");
+      return builder.toString();
+   }
+
+   public void startScriptlet(Location beginPosition)
+   {
+   }
+
+   public void appendScriptlet(String scriptlet)
+   {
+      out.append(scriptlet);
+   }
+
+   public void endScriptlet()
+   {
+      // We append a line break because we want that any line comment does not affect the template
+      out.append("\n");
+   }
+
+   public void startExpression(Location beginPosition)
+   {
+      out.append("print(renderContext, ");
+   }
+
+   public void appendExpression(String expr)
+   {
+      out.append(expr);
+   }
+
+   public void endExpression()
+   {
+      out.append(");\n");
+   }
+
+   public void appendText(String text)
+   {
+      String name = "s" + constantCount++;
+      constants.append("private static final ").append(CHAR_ARRAY).append(" ").append(name).append(" = new ").
+         append(CHAR_ARRAY).append("(");
+      appendLiteral(text, constants);
+      constants.append(");\n");
+      out.append("print(renderContext, ").append(name).append(");\n");
+   }
+
+   public void appendLineBreak(SectionType currentType, Location position)
+   {
+      switch (currentType)
+      {
+         case SCRIPTLET:
+         case EXPR:
+            out.append("\n");
+            break;
+         default:
+            throw new AssertionError();
+      }
+   }
+
+   @Override
+   public void url(String typeName, String methodName, List<String> args)
+   {
+      out.append("print(renderContext, ").append(typeName).append(".").append(methodName).append("(");
+      for (int i = 0;i < args.size();i++)
+      {
+         if (i > 0)
+         {
+            out.append(",");
+         }
+         out.append(args.get(i));
+      }
+      out.append("));\n");
+   }
+
+   @Override
+   public void openTag(String className, Map<String, String> args) throws IOException
+   {
+      // A parameter is declared in place, it has no body
+      if (PARAM_TAG.equals(className))
+      {
+         declareParameter(args);
+         return;
+      }
+
+      //
+      out.append("new ").append(className).append("().render(renderContext, new ").append(Renderable.class.getName()).append("()\n");
+      out.append("{\n");
+      out.append("public void render(final ").append(RENDER_CONTEXT).append(" renderContext)\n");
+      out.append("{\n");
+      out.append("try\n");
+      out.append("{\n");
+   }
+
+   @Override
+   public void closeTag(String className, Map<String, String> args) throws IOException
+   {
+      if (PARAM_TAG.equals(className))
+      {
+         return;
+      }
+
+      //
+      out.append("}\n");
+      out.append("catch (Exception e)\n");
+      out.append("{\n");
+      out.append("throw rethrow(e);\n");
+      out.append("}\n");
+      out.append("}\n");
+      out.append("}, ");
+      if (args == null || args.isEmpty())
+      {
+         out.append("null");
+      }
+      else
+      {
+         out.append("args(");
+         int index = 0;
+         for (Map.Entry<String, String> entry : args.entrySet())
+         {
+            if (index++ > 0)
+            {
+               out.append(",");
+            }
+            appendLiteral(entry.getKey(), out);
+            out.append(",");
+            appendValue(entry.getValue(), out);
+         }
+         out.append(")");
+      }
+      out.append(");\n");
+   }
+
+   @Override
+   public void tag(String tagName, Map<String, String> args)
+   {
+      if (PARAM_TAG.equals(tagName))
+      {
+         declareParameter(args);
+      }
+   }
+
+   private void declareParameter(Map<String, String> args)
+   {
+      String name = args.get("name");
+      String type = args.get("type");
+      if (type == null)
+      {
+         type = Object.class.getName();
+      }
+      out.append("final ").append(type).append(" ").append(name).append(" = (").append(type).append(")resolve(renderContext, ");
+      appendLiteral(name, out);
+      out.append(");\n");
+   }
+
+   /**
+    * Appends a tag argument value as a string concatenation of its text and of its expressions.
+    *
+    * @param s the value
+    * @param builder the builder
+    */
+   private static void appendValue(String s, StringBuilder builder)
+   {
+      StringBuilder value = new StringBuilder("\"\"");
+      StringBuilder text = new StringBuilder();
+      boolean expression = false;
+      int i = 0;
+      while (i < s.length())
+      {
+         char c = s.charAt(i);
+         if (c == '\\' && i + 1 < s.length() && s.charAt(i + 1) == '$')
+         {
+            text.append('$');
+            i += 2;
+         }
+         else if (c == '$' && i + 1 < s.length() && s.charAt(i + 1) == '{')
+         {
+            // Find the closing brace of the expression, the string and char literals are skipped
+            int depth = 0;
+            int end = -1;
+            for (int j = i + 2;j < s.length() && end == -1;j++)
+            {
+               char d = s.charAt(j);
+               if (d == '"' || d == '\'')
+               {
+                  while (++j < s.length() && s.charAt(j) != d)
+                  {
+                     if (s.charAt(j) == '\\')
+                     {
+                        j++;
+                     }
+                  }
+               }
+               else if (d == '{')
+               {
+                  depth++;
+               }
+               else if (d == '}' && depth-- == 0)
+               {
+                  end = j;
+               }
+            }
+            if (end == -1)
+            {
+               // Not an expression
+               text.append(s, i, s.length());
+               break;
+            }
+            if (text.length() > 0)
+            {
+               value.append(" + ");
+               appendLiteral(text.toString(), value);
+               text.setLength(0);
+            }
+            value.append(" + (").append(s, i + 2, end).append(")");
+            expression = true;
+            i = end + 1;
+         }
+         else
+         {
+            text.append(c);
+            i++;
+         }
+      }
+
+      //
+      if (expression)
+      {
+         if (text.length() > 0)
+         {
+            value.append(" + ");
+            appendLiteral(text.toString(), value);
+         }
+         builder.append("(").append(value).append(")");
+      }
+      else
+      {
+         appendLiteral(text.toString(), builder);
+      }
+   }
+
+   private static void appendLiteral(String s, StringBuilder builder)
+   {
+      builder.append('"');
+      for (int i = 0;i < s.length();i++)
+      {
+         char c = s.charAt(i);
+         switch (c)
+         {
+            case '"':
+               builder.append("\\\"");
+               break;
+            case '\\':
+               builder.append("\\\\");
+               break;
+            case '\n':
+               builder.append("\\n");
+               break;
+            case '\r':
+               builder.append("\\r");
+               break;
+            case '\t':
+               builder.append("\\t");
+               break;
+            default:
+               if (c < 0x20 || c > 0x7E)
+               {
+                  // Keep the generated source ascii so it does not depend on the source encoding
+                  String hex = Integer.toHexString(c);
+                  builder.append("\\u");
+                  for (int j = hex.length();j < 4;j++)
+                  {
+                     builder.append('0');
+                  }
+                  builder.append(hex);
+               }
+               else
+               {
+                  builder.append(c);
+               }
+         }
+      }
+      builder.append('"');
+   }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.jtmpl;
+
+import org.juzu.impl.spi.template.TemplateEmitter;
+import org.juzu.impl.spi.template.TemplateProvider;
+import org.juzu.impl.spi.template.TemplateStub;
+
+/**
+ * A provider for templates written with Java code: the template is emitted as the source of its stub and is
+ * statically compiled along with the application, no dynamic language is involved at runtime.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JavaTemplateProvider extends TemplateProvider
+{
+
+   @Override
+   public Class<? extends TemplateStub> getTemplateStubType()
+   {
+      return JavaTemplateStub.class;
+   }
+
+   @Override
+   public TemplateEmitter createEmitter()
+   {
+      return new JavaTemplateEmitter();
+   }
+
+   @Override
+   public String getTargetExtension()
+   {
+      return "java";
+   }
+
+   @Override
+   public boolean isStubSource()
+   {
+      return true;
+   }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.jtmpl;
+
+import org.juzu.UndeclaredIOException;
+import org.juzu.impl.application.ApplicationException;
+import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.template.TemplateExecutionException;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.CharArray;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The base class of the stubs generated by the {@link JavaTemplateProvider}, the emitted template code is the body
+ * of the {@link #doRender(TemplateRenderContext)} method and is compiled along with the application.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public abstract class JavaTemplateStub extends TemplateStub
+{
+
+   /** . */
+   protected final String templateId;
+
+   protected JavaTemplateStub()
+   {
+      String name = getClass().getName();
+      this.templateId = name.substring(0, name.length() - 1); // Remove trailing _
+   }
+
+   @Override
+   public void render(TemplateRenderContext renderContext) throws TemplateExecutionException, IOException
+   {
+      try
+      {
+         doRender(renderContext);
+      }
+      catch (IOException e)
+      {
+         throw e;
+      }
+      catch (TemplateExecutionException e)
+      {
+         throw e;
+      }
+      catch (Exception e)
+      {
+         throw new TemplateExecutionException(templateId, null, null, e);
+      }
+   }
+
+   /**
+    * Renders the template, this method is implemented by the generated stub.
+    *
+    * @param renderContext the render context
+    * @throws Exception any exception
+    */
+   protected abstract void doRender(TemplateRenderContext renderContext) throws Exception;
+
+   /**
+    * Resolves the value of a template parameter, the bean named after the parameter is used first and then the
+    * render context attribute.
+    *
+    * @param renderContext the render context
+    * @param name the parameter name
+    * @return the parameter value
+    */
+   protected static Object resolve(TemplateRenderContext renderContext, String name)
+   {
+      Object value;
+      try
+      {
+         value = renderContext.resolveBean(name);
+      }
+      catch (ApplicationException e)
+      {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException)
+         {
+            throw (RuntimeException)cause;
+         }
+         else if (cause instanceof Error)
+         {
+            throw (Error)cause;
+         }
+         else
+         {
+            throw new UndeclaredThrowableException(cause);
+         }
+      }
+      if (value == null)
+      {
+         Map<String, ?> attributes = renderContext.getAttributes();
+         if (attributes != null)
+         {
+            value = attributes.get(name);
+         }
+      }
+      return value;
+   }
+
+   protected static void print(TemplateRenderContext renderContext, CharArray chars) throws IOException
+   {
+      renderContext.getPrinter().write(chars);
+   }
+
+   protected static void print(TemplateRenderContext renderContext, String s) throws IOException
+   {
+      renderContext.getPrinter().write(s != null ? s : "null");
+   }
+
+   protected static void print(TemplateRenderContext renderContext, Object o) throws IOException
+   {
+      if (o instanceof CharArray)
+      {
+         renderContext.getPrinter().write((CharArray)o);
+      }
+      else if (o instanceof Date)
+      {
+         Locale locale = renderContext.getLocale();
+         if (locale != null)
+         {
+            renderContext.getPrinter().write(DateFormat.getDateInstance(DateFormat.MEDIUM, locale).format((Date)o));
+         }
+         else
+         {
+            renderContext.getPrinter().write(o.toString());
+         }
+      }
+      else
+      {
+         renderContext.getPrinter().write(String.valueOf(o));
+      }
+   }
+
+   /**
+    * Builds the arguments of a tag.
+    *
+    * @param keyValues the argument names and values
+    * @return the arguments
+    */
+   protected static Map<String, String> args(String... keyValues)
+   {
+      Map<String, String> args = new LinkedHashMap<String, String>();
+      for (int i = 0;i < keyValues.length;i += 2)
+      {
+         args.put(keyValues[i], keyValues[i + 1]);
+      }
+      return args;
+   }
+
+   /**
+    * Rethrows an exception raised by the body of a tag as an unchecked exception.
+    *
+    * @param e the exception
+    * @return never returns
+    */
+   protected static RuntimeException rethrow(Exception e)
+   {
+      if (e instanceof RuntimeException)
+      {
+         throw (RuntimeException)e;
+      }
+      else if (e instanceof IOException)
+      {
+         throw new UndeclaredIOException((IOException)e);
+      }
+      else
+      {
+         throw new UndeclaredThrowableException(e);
+      }
+   }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.tags;
+
+import org.juzu.impl.application.FragmentCache;
+import org.juzu.impl.compiler.CompilationException;
+import org.juzu.impl.model.CompilationErrorCode;
+import org.juzu.impl.template.ASTNode;
+import org.juzu.impl.template.compiler.ExtendedTagHandler;
+import org.juzu.impl.template.compiler.ProcessPhase;
+import org.juzu.impl.template.compiler.Template;
+import org.juzu.template.Renderable;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.CharArray;
+import org.juzu.text.WriterPrinter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Caches the rendered body: <code>#{cache key=menu ttl=60 scope=application}...#{/cache}</code>. The body is
+ * rendered once per key and the cached fragment is replayed until it expires after <code>ttl</code> seconds
+ * (never by default). The fragments are shared by the application (by default) or by the session, a key should
+ * therefore identify the content of the fragment, it is scoped by the template and by the locale of the rendering.
+ * The title set by the body is not cached.
+ *
+ * <p>An application scoped fragment is shared by all the users and must not contain the <code>@{...}</code>
+ * controller urls since they are bound to the request that renders them, such body is rejected at compilation
+ * time. The urls of an included template are not detected and must be cached in the session scope.</p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class CacheTag extends ExtendedTagHandler
+{
+
+   /** The argument holding the id of the template, set during the processing. */
+   static final String TEMPLATE_ARG = "template";
+
+   @Override
+   public void process(ProcessPhase phase, ASTNode.Tag tag, Template t) throws CompilationException
+   {
+      Map<String, String> args = tag.getArgs();
+      if (args.get("key") == null)
+      {
+         throw new CompilationException(CompilationErrorCode.TEMPLATE_TAG_ILLEGAL_ARGUMENT, "key", tag.getName());
+      }
+      String scope = args.get("scope");
+      if (scope != null && !"application".equals(scope) && !"session".equals(scope))
+      {
+         throw new CompilationException(CompilationErrorCode.TEMPLATE_TAG_ILLEGAL_ARGUMENT, "scope", tag.getName());
+      }
+      String ttl = args.get("ttl");
+      if (ttl != null && ttl.indexOf('$') == -1 && parseTTL(ttl) < 0)
+      {
+         throw new CompilationException(CompilationErrorCode.TEMPLATE_TAG_ILLEGAL_ARGUMENT, "ttl", tag.getName());
+      }
+      if (scope == null || "application".equals(scope))
+      {
+         checkURL(tag);
+      }
+
+      //
+      args.put(TEMPLATE_ARG, t.getFQN().getFullName());
+   }
+
+   private void checkURL(ASTNode<?> node) throws CompilationException
+   {
+      for (ASTNode.Block<?> child : node.getChildren())
+      {
+         if (child instanceof ASTNode.URL)
+         {
+            throw new CompilationException(CompilationErrorCode.TEMPLATE_CACHE_URL, ((ASTNode.URL)child).getMethodName());
+         }
+         checkURL(child);
+      }
+   }
+
+   @Override
+   public void render(TemplateRenderContext context, Renderable body, Map<String, String> args) throws IOException
+   {
+      String scope = args.get("scope");
+      String ttl = args.get("ttl");
+      long seconds = ttl != null ? parseTTL(ttl) : 0;
+      FragmentCache cache = context.resolveFragmentCache(scope != null ? scope : "application");
+
+      // Without cache or with an invalid dynamic ttl we render the body as is
+      if (cache == null || seconds < 0)
+      {
+         body.render(context);
+         return;
+      }
+
+      //
+      String key = key(context, args);
+      CharArray fragment = cache.get(key);
+      if (fragment == null)
+      {
+         StringBuilder buffer = new StringBuilder();
+         context.render(body, new WriterPrinter(buffer));
+         fragment = new CharArray.Simple(buffer);
+         cache.put(key, fragment, seconds * 1000);
+      }
+      context.getPrinter().write(fragment);
+   }
+
+   private static String key(TemplateRenderContext context, Map<String, String> args)
+   {
+      // The locale is always delimited so a key cannot collide with a localized key
+      Locale locale = context.getLocale();
+      StringBuilder key = new StringBuilder();
+      key.append(args.get(TEMPLATE_ARG)).append('#');
+      key.append(locale != null ? locale.toString() : "").append('#');
+      return key.append(args.get("key")).toString();
+   }
+
+   private static long parseTTL(String ttl)
+   {
+      try
+      {
+         return Long.parseLong(ttl.trim());
+      }
+      catch (NumberFormatException e)
+      {
+         return -1;
+      }
+   }
+}
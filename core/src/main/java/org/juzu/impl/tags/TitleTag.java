@@ -19,17 +19,54 @@
 
 package org.juzu.impl.tags;
 
+import org.juzu.impl.template.ASTNode;
+import org.juzu.impl.template.SectionType;
+import org.juzu.impl.template.compiler.ExtendedTagHandler;
+import org.juzu.impl.template.compiler.ProcessPhase;
+import org.juzu.impl.template.compiler.Template;
 import org.juzu.template.Renderable;
-import org.juzu.template.TagHandler;
 import org.juzu.template.TemplateRenderContext;
 
 import java.io.IOException;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-public class TitleTag extends TagHandler
+public class TitleTag extends ExtendedTagHandler
 {
 
+   @Override
+   public void process(ProcessPhase phase, ASTNode.Tag tag, Template t)
+   {
+      String title = tag.getArgs().get("value");
+
+      // The last title wins, it can be resolved before rendering only when it does not contain any expression
+      // and when it is always rendered, i.e it is a child of the template root that comes before any scriptlet
+      if (title != null && isUnconditional(tag))
+      {
+         t.setTitle(title.indexOf('$') == -1 && title.indexOf('\\') == -1 ? title : null);
+      }
+   }
+
+   private boolean isUnconditional(ASTNode.Tag tag)
+   {
+      ASTNode<?> parent = tag.getParent();
+      if (parent instanceof ASTNode.Template)
+      {
+         for (ASTNode.Block<?> sibling : parent.getChildren())
+         {
+            if (sibling == tag)
+            {
+               return true;
+            }
+            else if (sibling instanceof ASTNode.Section && ((ASTNode.Section)sibling).getType() == SectionType.SCRIPTLET)
+            {
+               return false;
+            }
+         }
+      }
+      return false;
+   }
+
    @Override
    public void render(TemplateRenderContext context, Renderable body, Map<String, String> args) throws IOException
    {
@@ -20,6 +20,7 @@
 package org.juzu.impl.template.compiler;
 
 import org.juzu.impl.compiler.CompilationException;
+import org.juzu.impl.tags.CacheTag;
 import org.juzu.impl.tags.DecorateTag;
 import org.juzu.impl.tags.IncludeTag;
 import org.juzu.impl.tags.InsertTag;
@@ -51,6 +52,7 @@ public class CompilationPhase
       tags.put("decorate", new DecorateTag());
       tags.put("title", new TitleTag());
       tags.put("param", new ParamTag());
+      tags.put("cache", new CacheTag());
    }
 
    public TagHandler resolveTag(String name)
@@ -35,4 +35,17 @@ public class EmitContext
    {
       return null;
    }
+
+   /**
+    * Resolves a template to inline in the emitted template instead of resolving it at runtime. The default
+    * implementation returns null, which means that the template is not inlined.
+    *
+    * @param path the template path
+    * @return the template to inline or null
+    * @throws CompilationException any compilation exception
+    */
+   public Template resolveTemplate(String path) throws CompilationException
+   {
+      return null;
+   }
 }
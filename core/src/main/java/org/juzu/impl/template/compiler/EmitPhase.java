@@ -20,24 +20,59 @@
 package org.juzu.impl.template.compiler;
 
 import org.juzu.impl.spi.template.TemplateEmitter;
+import org.juzu.impl.tags.DecorateTag;
+import org.juzu.impl.tags.IncludeTag;
+import org.juzu.impl.tags.InsertTag;
+import org.juzu.impl.tags.ParamTag;
 import org.juzu.impl.template.ASTNode;
+import org.juzu.impl.template.SectionType;
 import org.juzu.impl.utils.MethodInvocation;
 import org.juzu.template.TagHandler;
 import org.juzu.text.Location;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+/**
+ * Emits a template. The templates included or decorating the template are inlined when they are resolved by
+ * {@link EmitContext#resolveTemplate(String)}: they are emitted in a block of the template script and the body of
+ * a decorate tag is emitted in place of the insert tag of the decorating template, so no template is resolved at
+ * runtime for them. A parameter already declared by an enclosing template is not declared again. The emitter is
+ * told which template the emitted sections come from so it can report the positions of the inlined templates.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
 public class EmitPhase extends CompilationPhase
 {
 
    /** . */
    private final EmitContext context;
 
+   /** The paths of the templates being inlined, a template cannot be inlined in itself. */
+   private final List<String> inlined;
+
+   /** The bodies of the decorate tags being inlined. */
+   private final List<List<ASTNode.Block<?>>> bodies;
+
+   /** The ids of the templates declaring the bodies, null for the emitted template. */
+   private final List<String> bodyOrigins;
+
+   /** The id of the inlined template being emitted, null for the emitted template. */
+   private String origin;
+
+   /** The parameters declared in the current scope. */
+   private Set<String> parameters;
+
    public EmitPhase(EmitContext context)
    {
       this.context = context;
+      this.inlined = new ArrayList<String>();
+      this.bodies = new ArrayList<List<ASTNode.Block<?>>>();
+      this.bodyOrigins = new ArrayList<String>();
+      this.parameters = new HashSet<String>();
    }
 
    public void emit(TemplateEmitter generator, ASTNode<?> node) throws IOException
@@ -94,11 +129,41 @@ public class EmitPhase extends CompilationPhase
          {
             ASTNode.Tag tag = (ASTNode.Tag)block;
             TagHandler handler = get(tag);
+            if ((handler instanceof IncludeTag || handler instanceof DecorateTag) && inline(ctx, tag, handler))
+            {
+               continue;
+            }
+            if (handler instanceof InsertTag && bodies.size() > 0)
+            {
+               // The body is emitted with the enclosing decorate bodies, they are restored after
+               List<ASTNode.Block<?>> body = bodies.remove(bodies.size() - 1);
+               String bodyOrigin = bodyOrigins.remove(bodyOrigins.size() - 1);
+               String current = origin;
+               setOrigin(ctx, bodyOrigin);
+               try
+               {
+                  doEmit(ctx, body);
+               }
+               finally
+               {
+                  setOrigin(ctx, current);
+                  bodies.add(body);
+                  bodyOrigins.add(bodyOrigin);
+               }
+               continue;
+            }
+            if (handler instanceof ParamTag && !parameters.add(tag.getArgs().get("name")))
+            {
+               continue;
+            }
             String className = handler.getClass().getName();
             if (tag.getChildren() != null)
             {
                ctx.writer.openTag(className, tag.getArgs());
+               Set<String> enclosing = parameters;
+               parameters = new HashSet<String>(enclosing);
                doEmit(ctx, tag.getChildren());
+               parameters = enclosing;
                ctx.writer.closeTag(className, tag.getArgs());
             }
             else
@@ -112,4 +177,69 @@ public class EmitPhase extends CompilationPhase
          }
       }
    }
+
+   private boolean inline(EmitterContext ctx, ASTNode.Tag tag, TagHandler handler) throws IOException
+   {
+      String path = tag.getArgs().get("path");
+      if (path == null || inlined.contains(path))
+      {
+         return false;
+      }
+      Template template = context.resolveTemplate(path);
+      if (template == null)
+      {
+         return false;
+      }
+
+      //
+      ASTNode.Template ast = template.getAST();
+      boolean decorate = handler instanceof DecorateTag;
+      inlined.add(path);
+      if (decorate)
+      {
+         bodies.add(tag.getChildren());
+         bodyOrigins.add(origin);
+      }
+      Set<String> enclosing = parameters;
+      parameters = new HashSet<String>(enclosing);
+      String enclosingOrigin = origin;
+
+      // The handlers are kept until the end of the emission as the template may be the emitted template
+      doAttribute(ast);
+      try
+      {
+         // The block scopes the declarations of the inlined template, the positions of the inlined template
+         // are reported with its id
+         scriptlet(ctx, tag.getBeginPosition(), "if (true) {");
+         setOrigin(ctx, template.getFQN().getFullName());
+         doEmit(ctx, ast.getChildren());
+         setOrigin(ctx, enclosingOrigin);
+         scriptlet(ctx, tag.getBeginPosition(), "}");
+      }
+      finally
+      {
+         setOrigin(ctx, enclosingOrigin);
+         parameters = enclosing;
+         if (decorate)
+         {
+            bodies.remove(bodies.size() - 1);
+            bodyOrigins.remove(bodyOrigins.size() - 1);
+         }
+         inlined.remove(inlined.size() - 1);
+      }
+      return true;
+   }
+
+   private void setOrigin(EmitterContext ctx, String templateId)
+   {
+      origin = templateId;
+      ctx.writer.setOrigin(templateId);
+   }
+
+   private void scriptlet(EmitterContext ctx, Location position, String code)
+   {
+      ctx.begin(SectionType.SCRIPTLET, position);
+      ctx.appendText(code);
+      ctx.end();
+   }
 }
@@ -50,6 +50,9 @@ public class Template implements Serializable
    /** The last modified date. */
    private long lastModified;
 
+   /** The title known before rendering, null when there is no title or when the title is dynamic. */
+   private String title;
+
    public Template(
       String originPath,
       ASTNode.Template ast,
@@ -106,4 +109,14 @@ public class Template implements Serializable
    {
       parameters.add(parameterName);
    }
+
+   public String getTitle()
+   {
+      return title;
+   }
+
+   public void setTitle(String title)
+   {
+      this.title = title;
+   }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.utils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that flushes the underlying stream each time a chunk of bytes has been written, so the
+ * content is sent progressively instead of being held until the end of the response.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ChunkedOutputStream extends FilterOutputStream
+{
+
+   /** . */
+   private final int chunkSize;
+
+   /** The number of bytes written since the last flush. */
+   private int pending;
+
+   public ChunkedOutputStream(OutputStream out, int chunkSize)
+   {
+      super(out);
+
+      //
+      if (out == null)
+      {
+         throw new NullPointerException("No null output stream accepted");
+      }
+      if (chunkSize < 1)
+      {
+         throw new IllegalArgumentException("Chunk size " + chunkSize + " must be positive");
+      }
+
+      //
+      this.chunkSize = chunkSize;
+      this.pending = 0;
+   }
+
+   public int getChunkSize()
+   {
+      return chunkSize;
+   }
+
+   @Override
+   public void write(int b) throws IOException
+   {
+      out.write(b);
+      written(1);
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) throws IOException
+   {
+      out.write(b, off, len);
+      written(len);
+   }
+
+   @Override
+   public void flush() throws IOException
+   {
+      pending = 0;
+      out.flush();
+   }
+
+   private void written(int len) throws IOException
+   {
+      pending += len;
+      if (pending >= chunkSize)
+      {
+         flush();
+      }
+   }
+}
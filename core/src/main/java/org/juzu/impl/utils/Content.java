@@ -21,9 +21,17 @@ package org.juzu.impl.utils;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 
-/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+/**
+ * The content of a file, it is an immutable snapshot. The bytes are held by a heap byte buffer, the decoded
+ * string is computed once and then shared.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
 public class Content
 {
 
@@ -31,12 +39,20 @@ public class Content
    private long lastModified;
 
    /** . */
-   private byte[] data;
+   private final ByteBuffer data;
 
    /** . */
    private Charset encoding;
 
+   /** The string decoded with the encoding. */
+   private volatile String chars;
+
    public Content(long lastModified, byte[] data, Charset encoding)
+   {
+      this(lastModified, data != null ? ByteBuffer.wrap(data) : null, encoding);
+   }
+
+   public Content(long lastModified, ByteBuffer data, Charset encoding)
    {
       if (data == null)
       {
@@ -56,9 +72,11 @@ public class Content
 
    public Content(long lastModified, CharSequence s, Charset encoding)
    {
+      String string = s.toString();
       this.encoding = encoding;
       this.lastModified = lastModified;
-      this.data = s.toString().getBytes(encoding);
+      this.data = ByteBuffer.wrap(string.getBytes(encoding));
+      this.chars = string;
    }
 
    public long getLastModified()
@@ -71,14 +89,38 @@ public class Content
       return encoding;
    }
 
+   /**
+    * Returns a read only view of the bytes.
+    *
+    * @return the bytes
+    */
+   public ByteBuffer getBuffer()
+   {
+      return data.asReadOnlyBuffer();
+   }
+
    public InputStream getInputStream()
    {
-      return new ByteArrayInputStream(data);
+      if (data.hasArray())
+      {
+         return new ByteArrayInputStream(data.array(), data.arrayOffset() + data.position(), data.remaining());
+      }
+      else
+      {
+         return new ByteBufferInputStream(data.duplicate());
+      }
    }
 
    public CharSequence getCharSequence(Charset encoding)
    {
-      return new String(data, encoding);
+      if (encoding.equals(this.encoding))
+      {
+         return getCharSequence();
+      }
+      else
+      {
+         return decode(encoding);
+      }
    }
 
    public CharSequence getCharSequence()
@@ -87,7 +129,30 @@ public class Content
       {
          throw new IllegalStateException("No encoding set");
       }
-      return new String(data, encoding);
+      String chars = this.chars;
+      if (chars == null)
+      {
+         this.chars = chars = decode(encoding);
+      }
+      return chars;
+   }
+
+   private String decode(Charset encoding)
+   {
+      try
+      {
+         // Decode like the String constructor does
+         return encoding.newDecoder().
+            onMalformedInput(CodingErrorAction.REPLACE).
+            onUnmappableCharacter(CodingErrorAction.REPLACE).
+            decode(data.duplicate()).
+            toString();
+      }
+      catch (CharacterCodingException e)
+      {
+         // Cannot happen with the replace action
+         throw new AssertionError(e);
+      }
    }
 
    public Content touch()
@@ -98,6 +163,46 @@ public class Content
 
    public int getSize()
    {
-      return data.length;
+      return data.remaining();
+   }
+
+   private static class ByteBufferInputStream extends InputStream
+   {
+
+      /** . */
+      private final ByteBuffer buffer;
+
+      private ByteBufferInputStream(ByteBuffer buffer)
+      {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public int read()
+      {
+         return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len)
+      {
+         if (len == 0)
+         {
+            return 0;
+         }
+         if (!buffer.hasRemaining())
+         {
+            return -1;
+         }
+         len = Math.min(len, buffer.remaining());
+         buffer.get(b, off, len);
+         return len;
+      }
+
+      @Override
+      public int available()
+      {
+         return buffer.remaining();
+      }
    }
 }
@@ -19,12 +19,9 @@
 
 package org.juzu.impl.utils;
 
-import javax.script.Bindings;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
-import javax.script.SimpleBindings;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -37,31 +34,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicReference;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public final class JSON
 {
 
-   /** . */
-   private static final ScriptEngine engine;
-
-   static
-   {
-      try
-      {
-         String init = Tools.read(Tools.class.getResource("json.js"));
-         ScriptEngine tmp = new ScriptEngineManager().getEngineByName("JavaScript");
-         tmp.eval(init);
-         engine = tmp;
-      }
-      catch (Exception e)
-      {
-         // Unexpected
-         throw new AssertionError(e);
-      }
-   }
-
    private static final Set<Class<?>> simpleTypes = new HashSet<Class<?>>(Arrays.asList(
       Integer.class,
       Long.class,
@@ -180,6 +157,17 @@ public final class JSON
       return this;
    }
 
+   /**
+    * Put a value that does not need to be unwrapped.
+    *
+    * @param name the name
+    * @param value the value
+    */
+   void put(String name, Object value)
+   {
+      entries.put(name, value);
+   }
+
    public TreeMap<String, Object> build()
    {
       TreeMap<String, Object> ret = new TreeMap<String, Object>(entries);
@@ -396,6 +384,9 @@ public final class JSON
                case '"':
                   appendable.append("\\\"");
                   break;
+               case '\\':
+                  appendable.append("\\\\");
+                  break;
                case '\n':
                   appendable.append("\\n");
                   break;
@@ -430,19 +421,21 @@ public final class JSON
       }
    }
 
-   public static Object parse(String json)
+   public static Object parse(String json) throws IllegalArgumentException
    {
       try
       {
-         Bindings bindings = new SimpleBindings();
-         String eval = "var tmp = (" + json + ");var o = new java.util.concurrent.atomic.AtomicReference(tmp.toJava());";
-         engine.eval(eval, bindings);
-         AtomicReference ret = (AtomicReference)bindings.get("o");
-         return ret.get();
+         return parse(new StringReader(json));
       }
-      catch (ScriptException e)
+      catch (IOException e)
       {
+         // Cannot happen with a string
          throw new AssertionError(e);
       }
    }
+
+   public static Object parse(Reader reader) throws IOException, IllegalArgumentException
+   {
+      return new JSONParser(reader).parse();
+   }
 }
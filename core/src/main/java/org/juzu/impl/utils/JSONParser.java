@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A streaming JSON parser reading characters one by one from a reader, the parsed values are:
+ * <ul>
+ *    <li>a {@link JSON} for an object</li>
+ *    <li>a {@link List} for an array</li>
+ *    <li>a {@link String} for a string, single quoted strings are accepted</li>
+ *    <li>an {@link Integer}, a {@link Long} or a {@link Double} for a number</li>
+ *    <li>a {@link Boolean} for <code>true</code> or <code>false</code></li>
+ *    <li><code>null</code> for <code>null</code></li>
+ * </ul>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+final class JSONParser
+{
+
+   /** . */
+   private static final int EOF = -1;
+
+   /** . */
+   private final Reader reader;
+
+   /** The current char or {@link #EOF}. */
+   private int current;
+
+   /** The index of the current char. */
+   private int index;
+
+   /** Buffer reused for strings and numbers. */
+   private final StringBuilder buffer;
+
+   JSONParser(Reader reader) throws IOException
+   {
+      this.reader = reader;
+      this.buffer = new StringBuilder();
+      this.index = -1;
+
+      //
+      next();
+   }
+
+   Object parse() throws IOException, IllegalArgumentException
+   {
+      Object value = parseValue();
+      skipWhitespace();
+      if (current != EOF)
+      {
+         throw error("Unexpected trailing content");
+      }
+      return value;
+   }
+
+   private int next() throws IOException
+   {
+      current = reader.read();
+      index++;
+      return current;
+   }
+
+   private void skipWhitespace() throws IOException
+   {
+      while (current == ' ' || current == '\n' || current == '\r' || current == '\t')
+      {
+         next();
+      }
+   }
+
+   private Object parseValue() throws IOException
+   {
+      skipWhitespace();
+      switch (current)
+      {
+         case '{':
+            return parseObject();
+         case '[':
+            return parseArray();
+         case '"':
+         case '\'':
+            return parseString();
+         case 't':
+            parseLiteral("true");
+            return Boolean.TRUE;
+         case 'f':
+            parseLiteral("false");
+            return Boolean.FALSE;
+         case 'n':
+            parseLiteral("null");
+            return null;
+         default:
+            if (current == '-' || (current >= '0' && current <= '9'))
+            {
+               return parseNumber();
+            }
+            else
+            {
+               throw error("Unexpected char");
+            }
+      }
+   }
+
+   private JSON parseObject() throws IOException
+   {
+      JSON json = new JSON();
+      next();
+      skipWhitespace();
+      if (current == '}')
+      {
+         next();
+      }
+      else
+      {
+         while (true)
+         {
+            skipWhitespace();
+            if (current != '"' && current != '\'')
+            {
+               throw error("Was expecting a member name");
+            }
+            String name = parseString();
+            skipWhitespace();
+            if (current != ':')
+            {
+               throw error("Was expecting ':'");
+            }
+            next();
+            json.put(name, parseValue());
+            skipWhitespace();
+            if (current == ',')
+            {
+               next();
+            }
+            else if (current == '}')
+            {
+               next();
+               break;
+            }
+            else
+            {
+               throw error("Was expecting ',' or '}'");
+            }
+         }
+      }
+      return json;
+   }
+
+   private List<Object> parseArray() throws IOException
+   {
+      ArrayList<Object> list = new ArrayList<Object>();
+      next();
+      skipWhitespace();
+      if (current == ']')
+      {
+         next();
+      }
+      else
+      {
+         while (true)
+         {
+            list.add(parseValue());
+            skipWhitespace();
+            if (current == ',')
+            {
+               next();
+            }
+            else if (current == ']')
+            {
+               next();
+               break;
+            }
+            else
+            {
+               throw error("Was expecting ',' or ']'");
+            }
+         }
+      }
+      return list;
+   }
+
+   private String parseString() throws IOException
+   {
+      int quote = current;
+      buffer.setLength(0);
+      while (next() != quote)
+      {
+         switch (current)
+         {
+            case EOF:
+               throw error("Unterminated string");
+            case '\\':
+               switch (next())
+               {
+                  case '"':
+                  case '\'':
+                  case '\\':
+                  case '/':
+                     buffer.append((char)current);
+                     break;
+                  case 'b':
+                     buffer.append('\b');
+                     break;
+                  case 'f':
+                     buffer.append('\f');
+                     break;
+                  case 'n':
+                     buffer.append('\n');
+                     break;
+                  case 'r':
+                     buffer.append('\r');
+                     break;
+                  case 't':
+                     buffer.append('\t');
+                     break;
+                  case 'u':
+                     int c = 0;
+                     for (int i = 0;i < 4;i++)
+                     {
+                        int digit = Character.digit(next(), 16);
+                        if (digit == -1)
+                        {
+                           throw error("Illegal unicode escape");
+                        }
+                        c = (c << 4) + digit;
+                     }
+                     buffer.append((char)c);
+                     break;
+                  default:
+                     throw error("Illegal escape");
+               }
+               break;
+            default:
+               buffer.append((char)current);
+         }
+      }
+      next();
+      return buffer.toString();
+   }
+
+   private Number parseNumber() throws IOException
+   {
+      buffer.setLength(0);
+      boolean decimal = false;
+      while (true)
+      {
+         if (current == '-' || current == '+' || (current >= '0' && current <= '9'))
+         {
+            buffer.append((char)current);
+         }
+         else if (current == '.' || current == 'e' || current == 'E')
+         {
+            decimal = true;
+            buffer.append((char)current);
+         }
+         else
+         {
+            break;
+         }
+         next();
+      }
+      String s = buffer.toString();
+      try
+      {
+         if (decimal)
+         {
+            return Double.valueOf(s);
+         }
+         else
+         {
+            long value = Long.parseLong(s);
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+            {
+               return (int)value;
+            }
+            else
+            {
+               return value;
+            }
+         }
+      }
+      catch (NumberFormatException e)
+      {
+         throw error("Illegal number " + s);
+      }
+   }
+
+   private void parseLiteral(String literal) throws IOException
+   {
+      for (int i = 0;i < literal.length();i++)
+      {
+         if (current != literal.charAt(i))
+         {
+            throw error("Was expecting " + literal);
+         }
+         next();
+      }
+   }
+
+   private IllegalArgumentException error(String msg)
+   {
+      String found = current == EOF ? "end of input" : ("'" + (char)current + "'");
+      return new IllegalArgumentException(msg + " at index " + index + " instead of " + found);
+   }
+}
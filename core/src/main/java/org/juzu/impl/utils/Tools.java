@@ -35,6 +35,8 @@ import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -166,6 +168,83 @@ public class Tools
       }
    }
 
+   /**
+    * Read the bytes of a stream whose size is known, the returned array is allocated with the exact size.
+    * When the size is negative the stream is read until its end.
+    *
+    * @param in the stream
+    * @param size the expected size
+    * @return the bytes
+    * @throws IOException any io exception
+    */
+   public static byte[] bytes(InputStream in, int size) throws IOException
+   {
+      if (size < 0)
+      {
+         return bytes(in);
+      }
+      try
+      {
+         byte[] bytes = new byte[size];
+         int length = 0;
+         while (length < size)
+         {
+            int l = in.read(bytes, length, size - length);
+            if (l == -1)
+            {
+               byte[] tmp = new byte[length];
+               System.arraycopy(bytes, 0, tmp, 0, length);
+               return tmp;
+            }
+            length += l;
+         }
+
+         // The size was wrong
+         int next = in.read();
+         if (next != -1)
+         {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(size * 2);
+            baos.write(bytes);
+            baos.write(next);
+            copy(in, baos);
+            bytes = baos.toByteArray();
+         }
+         return bytes;
+      }
+      finally
+      {
+         safeClose(in);
+      }
+   }
+
+   /**
+    * Read the bytes of a file in a heap buffer of its size. The file is not mapped in memory, a mapping would
+    * not be a snapshot of the file and would keep it locked on some platforms.
+    *
+    * @param f the file
+    * @return the bytes
+    * @throws IOException any io exception
+    */
+   public static ByteBuffer bytes(File f) throws IOException
+   {
+      FileInputStream in = new FileInputStream(f);
+      try
+      {
+         FileChannel channel = in.getChannel();
+         ByteBuffer buffer = ByteBuffer.allocate((int)channel.size());
+         while (buffer.hasRemaining() && channel.read(buffer) != -1)
+         {
+            // Read until the buffer is full
+         }
+         buffer.flip();
+         return buffer;
+      }
+      finally
+      {
+         safeClose(in);
+      }
+   }
+
    public static void write(String content, File f) throws IOException
    {
       FileOutputStream out = new FileOutputStream(f);
@@ -200,7 +279,7 @@ public class Tools
       {
          ByteArrayOutputStream baos = new ByteArrayOutputStream();
          copy(in, baos);
-         return baos.toString();
+         return baos.toString(charsetName);
       }
       finally
       {
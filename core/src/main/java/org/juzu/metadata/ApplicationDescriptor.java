@@ -22,8 +22,10 @@ package org.juzu.metadata;
 import org.juzu.impl.utils.JSON;
 import org.juzu.impl.utils.Tools;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -68,8 +70,7 @@ public class ApplicationDescriptor
       try
       {
          in = applicationClass.getResourceAsStream("config.json");
-         String s = Tools.read(in);
-         props = (JSON)JSON.parse(s);
+         props = (JSON)JSON.parse(new BufferedReader(new InputStreamReader(in, "UTF-8")));
       }
       catch (IOException e)
       {
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.metadata;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invokes a controller method without reflection, an implementation is generated for each controller by the
+ * annotation processor and performs a direct typed call to the controller method.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public abstract class ControllerInvoker
+{
+
+   /**
+    * Invoke the controller method on the specified controller with the request parameters.
+    *
+    * @param controller the controller
+    * @param parameters the request parameters
+    * @return the value returned by the controller method
+    * @throws InvocationTargetException wraps any throwable thrown by the controller method
+    */
+   public abstract Object invoke(Object controller, Map<String, String[]> parameters) throws InvocationTargetException;
+
+   protected static String single(Map<String, String[]> parameters, String name)
+   {
+      String[] values = parameters.get(name);
+      return values != null && values.length > 0 ? values[0] : null;
+   }
+
+   protected static String[] array(Map<String, String[]> parameters, String name)
+   {
+      String[] values = parameters.get(name);
+      return values != null ? values.clone() : null;
+   }
+
+   protected static List<String> list(Map<String, String[]> parameters, String name)
+   {
+      String[] values = parameters.get(name);
+      return values != null ? new ArrayList<String>(Arrays.asList(values)) : null;
+   }
+}
@@ -49,12 +49,26 @@ public final class ControllerMethod
    /** . */
    private final List<ControllerParameter> argumentParameters;
 
+   /** . */
+   private final ControllerInvoker invoker;
+
    public ControllerMethod(
       String id,
       Phase phase,
       Class<?> type,
       Method method,
       List<ControllerParameter> argumentParameters)
+   {
+      this(id, phase, type, method, argumentParameters, null);
+   }
+
+   public ControllerMethod(
+      String id,
+      Phase phase,
+      Class<?> type,
+      Method method,
+      List<ControllerParameter> argumentParameters,
+      ControllerInvoker invoker)
    {
       if (id == null)
       {
@@ -76,6 +90,7 @@ public final class ControllerMethod
       this.type = type;
       this.method = method;
       this.argumentParameters = Tools.safeUnmodifiableList(argumentParameters);
+      this.invoker = invoker;
    }
 
    public String getId()
@@ -108,6 +123,16 @@ public final class ControllerMethod
       return argumentParameters;
    }
 
+   /**
+    * Returns the generated invoker of this method or null when the method must be invoked by reflection.
+    *
+    * @return the invoker
+    */
+   public ControllerInvoker getInvoker()
+   {
+      return invoker;
+   }
+
    @Override
    public String toString()
    {
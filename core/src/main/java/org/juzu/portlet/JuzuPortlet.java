@@ -23,6 +23,7 @@ import org.juzu.impl.application.ApplicationBootstrap;
 import org.juzu.impl.application.ApplicationException;
 import org.juzu.impl.model.processor.MainProcessor;
 import org.juzu.impl.spi.fs.classloader.ClassLoaderFileSystem;
+import org.juzu.impl.spi.fs.disk.DiskFileSystem;
 import org.juzu.impl.spi.inject.InjectBootstrap;
 import org.juzu.impl.spi.inject.cdi.CDIBootstrap;
 import org.juzu.impl.spi.inject.spring.SpringBootstrap;
@@ -30,17 +31,23 @@ import org.juzu.impl.spi.request.portlet.PortletActionBridge;
 import org.juzu.impl.spi.request.portlet.PortletRenderBridge;
 import org.juzu.impl.spi.request.portlet.PortletResourceBridge;
 import org.juzu.impl.utils.JSON;
+import org.juzu.impl.utils.Spliterator;
 import org.juzu.impl.utils.Tools;
 import org.juzu.impl.utils.TrimmingException;
 import org.juzu.metadata.ApplicationDescriptor;
+import org.juzu.impl.application.FragmentCache;
 import org.juzu.impl.application.InternalApplicationContext;
 import org.juzu.impl.compiler.CompilationError;
 import org.juzu.impl.compiler.Compiler;
+import org.juzu.impl.compiler.CompilerContext;
+import org.juzu.impl.compiler.Dependencies;
 import org.juzu.impl.fs.Change;
-import org.juzu.impl.fs.FileSystemScanner;
+import org.juzu.impl.fs.FileSystemWatcher;
 import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.SimpleFileSystem;
 import org.juzu.impl.spi.fs.jar.JarFileSystem;
 import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
 import org.juzu.impl.spi.fs.war.WarFileSystem;
 import org.juzu.impl.utils.DevClassLoader;
 import org.w3c.dom.Element;
@@ -64,19 +71,25 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.jar.JarFile;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class JuzuPortlet implements Portlet, ResourceServingPortlet
@@ -85,21 +98,57 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
    /** . */
    private static final String[] CONFIG_PATH = {"org", "juzu", "config.json"};
 
+   /** The default size of the chunks flushed to the container in streaming render mode. */
+   private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+   /** The period in milliseconds between two checks of the sources in dev mode. */
+   private static final long DEV_WATCH_PERIOD = 500;
+
    /** . */
    private InternalApplicationContext applicationContext;
 
+   /** . */
+   private ApplicationBootstrap bootstrap;
+
    /** . */
    private boolean prod;
 
+   /** True when the render and resource responses are buffered until they are committed. */
+   private boolean buffer;
+
+   /** The size of the chunks flushed to the container when streaming, 0 when the response is not streamed. */
+   private int chunkSize;
+
    /** . */
    private PortletConfig config;
 
-   /** . */
-   private FileSystemScanner<String> devScanner;
+   /** Watches the sources in dev mode. */
+   private FileSystemWatcher<?> devWatcher;
+
+   /** The classes compiled in dev mode, kept to recompile only the changed units and their dependents. */
+   private RAMFileSystem devClasses;
+
+   /** The changes not yet compiled in dev mode. */
+   private final Map<String, Change> devChanges = new LinkedHashMap<String, Change>();
+
+   /** The units of the last failed recompilation, they are compiled again with the next changes. */
+   private final Set<String> devPending = new LinkedHashSet<String>();
+
+   /** The compiler state kept between the dev mode compilations. */
+   private CompilerContext compilerContext;
+
+   /** The last modification of the jars in WEB-INF/lib when the compiler context was last validated. */
+   private long jarsLastModified;
 
    /** The jars in WEB-INF/lib . */
    private List<URL> jarURLs;
 
+   /** The infrastructure shared with the other portlets of the web application. */
+   private JuzuRuntime runtime;
+
+   /** The boot started by init, awaited by the first request. */
+   private volatile Future<Collection<CompilationError>> initBoot;
+
    /** . */
    private ClassLoaderFileSystem classLoaderFS;
    
@@ -110,32 +159,114 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
          String runMode = config.getInitParameter("juzu.run_mode");
          runMode = runMode == null ? "prod" : runMode.trim().toLowerCase();
 
-         //
-         List<URL> jars = new ArrayList<URL>();
-         WarFileSystem bah = WarFileSystem.create(config.getPortletContext(), "/WEB-INF/lib/");
-         for (Iterator<String> i = bah.getChildren(bah.getRoot());i.hasNext();)
+         // The jars are discovered once for all the portlets of the web application
+         this.runtime = JuzuRuntime.acquire(config.getPortletContext());
+         List<URL> jars = runtime.getJarURLs();
+
+         // The render mode defaults to buffered in dev mode and to direct in prod mode
+         String renderMode = config.getInitParameter("juzu.render_mode");
+         renderMode = renderMode == null ? ("dev".equals(runMode) ? "buffered" : "direct") : renderMode.trim().toLowerCase();
+         if (!"direct".equals(renderMode) && !"buffered".equals(renderMode) && !"streaming".equals(renderMode))
          {
-            String s = i.next();
-            URL url = bah.getURL(s);
-            jars.add(url);
+            throw new PortletException("Unrecognized render mode " + renderMode + ", accepted values are direct, buffered and streaming");
+         }
+         int chunkSize = 0;
+         if ("streaming".equals(renderMode))
+         {
+            String chunkSizeValue = config.getInitParameter("juzu.render_chunk_size");
+            chunkSize = chunkSizeValue == null ? DEFAULT_CHUNK_SIZE : Integer.parseInt(chunkSizeValue.trim());
          }
 
          //
          this.config = config;
          this.prod = !("dev".equals(runMode));
+         this.buffer = "buffered".equals(renderMode);
+         this.chunkSize = chunkSize;
          this.jarURLs = jars;
 
-         //
-         Collection<CompilationError> errors = boot();
-         if (errors != null && errors.size() > 0)
+         // Boot in the background so the portlets of the web application boot in parallel, a failure is
+         // reported by the requests that attempt to boot again
+         final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+         this.initBoot = runtime.boot(new Callable<Collection<CompilationError>>()
          {
-            System.out.println("Error when compiling application " + errors);
-         }
+            public Collection<CompilationError> call() throws Exception
+            {
+               Thread current = Thread.currentThread();
+               ClassLoader previous = current.getContextClassLoader();
+               current.setContextClassLoader(loader);
+               try
+               {
+                  return boot();
+               }
+               finally
+               {
+                  current.setContextClassLoader(previous);
+               }
+            }
+         });
       }
       catch (IOException e)
       {
+         release();
          throw new PortletException(e);
       }
+      catch (PortletException e)
+      {
+         release();
+         throw e;
+      }
+      catch (RuntimeException e)
+      {
+         release();
+         throw e;
+      }
+   }
+
+   /**
+    * Release the runtime acquired by init.
+    */
+   private void release()
+   {
+      if (runtime != null)
+      {
+         runtime.release();
+         runtime = null;
+      }
+   }
+
+   /**
+    * Wait for the boot started by init, the first request waiting for it reports its errors, a failed boot
+    * is attempted again by the request.
+    *
+    * @throws PortletException when the boot thread was interrupted
+    */
+   private void awaitBoot() throws PortletException
+   {
+      Future<Collection<CompilationError>> future = initBoot;
+      if (future != null)
+      {
+         try
+         {
+            Collection<CompilationError> errors = future.get();
+            if (errors != null && errors.size() > 0)
+            {
+               System.out.println("Error when compiling application " + errors);
+            }
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new PortletException("Interrupted while waiting for the application boot", e);
+         }
+         catch (ExecutionException e)
+         {
+            config.getPortletContext().log("Could not boot application", e.getCause());
+         }
+         finally
+         {
+            initBoot = null;
+         }
+      }
    }
 
    private Collection<CompilationError> boot() throws PortletException
@@ -146,7 +277,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
          {
             try
             {
-               WarFileSystem fs = WarFileSystem.create(config.getPortletContext(), "/WEB-INF/classes/");
+               WarFileSystem fs = WarFileSystem.create(config.getPortletContext(), "/WEB-INF/classes/", true);
                ClassLoader cl = Thread.currentThread().getContextClassLoader();
                boot(fs, cl);
             }
@@ -161,18 +292,21 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
       {
          try
          {
-            if (devScanner != null)
+            if (devWatcher != null && devWatcher.isDirty())
             {
-               Map<String, Change> changes =  devScanner.scan();
-               if (changes.size() > 0)
+               try
                {
+                  Map<String, Change> changes = devWatcher.drain();
                   System.out.println("[" + config.getPortletName() + "] Detected changes : " + changes);
-                  applicationContext = null;
+                  devChanges.putAll(changes);
                }
-               else
+               catch (IOException e)
                {
-                  System.out.println("[" + config.getPortletName() + "] No changes detected");
+                  // The changes may be incomplete, so we build everything again
+                  config.getPortletContext().log("Could not detect the source changes", e);
+                  devClasses = null;
                }
+               stop();
             }
 
             //
@@ -185,27 +319,100 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
                {
                   ClassLoader devCL = new DevClassLoader(Thread.currentThread().getContextClassLoader());
                   classLoaderFS = new ClassLoaderFileSystem(devCL);
+                  compilerContext = new CompilerContext();
+                  jarsLastModified = getJarsLastModified();
+               }
+               else
+               {
+                  // The class path is kept warm by the compiler context unless a jar changed
+                  long lastModified = getJarsLastModified();
+                  if (lastModified != jarsLastModified)
+                  {
+                     System.out.println("[" + config.getPortletName() + "] Detected jar changes");
+                     classLoaderFS.invalidate();
+                     compilerContext.invalidate(classLoaderFS);
+                     jarsLastModified = lastModified;
+
+                     // The previous output may depend on what changed
+                     devClasses = null;
+                  }
                }
 
-               //
-               WarFileSystem fs = WarFileSystem.create(config.getPortletContext(), "/WEB-INF/src/");
-               RAMFileSystem classes = new RAMFileSystem();
+               // Mirror the sources in memory for the duration of the build, the files are read in parallel
+               WarFileSystem war = WarFileSystem.create(config.getPortletContext(), "/WEB-INF/src/", true);
+               RAMFileSystem fs = new RAMFileSystem();
+               ReadFileSystem.copy(war, fs, Runtime.getRuntime().availableProcessors());
+
+               // Recompile the changed units and their dependents against the previous output when possible
+               List<CompilationError> res = null;
+               boolean incremental = false;
+               if (devClasses != null)
+               {
+                  String[] compilationUnits = getCompilationUnits(fs, devChanges);
+                  if (compilationUnits != null)
+                  {
+                     System.out.println("[" + config.getPortletName() + "] Recompiling " + Arrays.asList(compilationUnits));
+                     Compiler compiler = new Compiler(
+                        compilerContext,
+                        fs,
+                        Arrays.<SimpleFileSystem<?>>asList(classLoaderFS, devClasses),
+                        devClasses,
+                        devClasses);
+                     compiler.addAnnotationProcessor(new MainProcessor());
+                     res = compiler.compile(compilationUnits);
+                     incremental = true;
+
+                     // The classes of the units were removed, they must be compiled again until they succeed
+                     devPending.clear();
+                     if (res.size() > 0)
+                     {
+                        devPending.addAll(Arrays.asList(compilationUnits));
+                     }
+                  }
+               }
+
+               // Otherwise compile everything from scratch
+               if (res == null)
+               {
+                  devClasses = new RAMFileSystem();
+                  devPending.clear();
+                  Compiler compiler = new Compiler(
+                     compilerContext,
+                     fs,
+                     Collections.<SimpleFileSystem<?>>singletonList(classLoaderFS),
+                     devClasses,
+                     devClasses);
+                  compiler.addAnnotationProcessor(new MainProcessor());
+                  res = compiler.compile();
+               }
+               devChanges.clear();
 
                //
-               Compiler compiler = new Compiler(fs, classLoaderFS, classes, classes);
-               compiler.addAnnotationProcessor(new MainProcessor());
-               List<CompilationError> res = compiler.compile();
+               RAMFileSystem classes = devClasses;
                if (res.isEmpty())
                {
                   ClassLoader cl2 = new URLClassLoader(new URL[]{classes.getURL()}, classLoaderFS.getClassLoader());
                   boot(classes, cl2);
-                  devScanner = new FileSystemScanner<String>(fs);
-                  devScanner.scan();
-                  System.out.println("[" + config.getPortletName() + "] Dev mode scanner monitoring " + fs.getFile(fs.getRoot()));
+                  if (devWatcher == null)
+                  {
+                     // Watch the real directory when the war is exploded, it avoids to open an url connection per file
+                     File root = war.getFile(war.getRoot());
+                     FileSystemWatcher<?> watcher = root != null && root.isDirectory() ?
+                        new FileSystemWatcher<File>(new DiskFileSystem(root)) :
+                        new FileSystemWatcher<String>(WarFileSystem.create(config.getPortletContext(), "/WEB-INF/src/"));
+                     watcher.start(DEV_WATCH_PERIOD);
+                     devWatcher = watcher;
+                     System.out.println("[" + config.getPortletName() + "] Dev mode watcher monitoring " + (root != null ? root : war));
+                  }
                   return Collections.emptyList();
                }
                else
                {
+                  // A failed recompilation keeps the previous output, the pending units are compiled again
+                  if (!incremental)
+                  {
+                     devClasses = null;
+                  }
                   return res;
                }
             }
@@ -221,13 +428,98 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
       }
    }
 
+   private long getJarsLastModified() throws IOException
+   {
+      long lastModified = 0;
+      for (URL jarURL : jarURLs)
+      {
+         lastModified = Math.max(lastModified, jarURL.openConnection().getLastModified());
+      }
+      return lastModified;
+   }
+
+   /**
+    * Returns the compilation units to recompile for the specified changes or null when the application must be
+    * compiled from scratch. The changed units are recompiled with the units depending on them, the dependencies
+    * are read from the classes of the previous compilation whose classes are removed from the output, so the
+    * classes that do not exist anymore do not remain. The sources generated by the annotation processor are not
+    * recompiled: a controller companion is generated again with its controller and an application class only
+    * refers to its default controller. Any other change such as a removal, a template modification or a
+    * generated source depending on a changed unit requires a full compilation.
+    *
+    * @param fs the source file system
+    * @param changes the changes
+    * @return the compilation units
+    * @throws IOException any io exception
+    */
+   private <P> String[] getCompilationUnits(ReadFileSystem<P> fs, Map<String, Change> changes) throws IOException
+   {
+      Set<String> changed = new LinkedHashSet<String>(devPending);
+      for (Map.Entry<String, Change> change : changes.entrySet())
+      {
+         String path = change.getKey();
+         if (change.getValue() == Change.REMOVE || !path.endsWith(".java"))
+         {
+            return null;
+         }
+         changed.add(path);
+      }
+      if (changed.isEmpty())
+      {
+         return null;
+      }
+
+      // The application classes
+      RAMPath config = devClasses.getPath(CONFIG_PATH);
+      if (config == null)
+      {
+         return null;
+      }
+      JSON json = (JSON)JSON.parse(devClasses.getContent(config).getCharSequence().toString());
+      Set<String> applications = new HashSet<String>();
+      for (String name : json.names())
+      {
+         applications.add(json.getString(name).replace('.', '/') + ".java");
+      }
+
+      //
+      Dependencies dependencies = new Dependencies(devClasses);
+      Set<String> units = dependencies.getDependents(changed);
+      if (units == null)
+      {
+         return null;
+      }
+      List<String> compilationUnits = new ArrayList<String>();
+      for (String unit : units)
+      {
+         if (fs.getPath(Spliterator.split(unit, '/')) != null)
+         {
+            compilationUnits.add(unit);
+         }
+         else if (!applications.contains(unit) && !(unit.endsWith("_.java") && units.contains(unit.substring(0, unit.length() - "_.java".length()) + ".java")))
+         {
+            return null;
+         }
+      }
+      dependencies.removeClasses(compilationUnits);
+      return compilationUnits.toArray(new String[compilationUnits.size()]);
+   }
+
    private <P, D> void boot(ReadFileSystem<P> classes, ClassLoader cl) throws Exception
    {
       // Find an application
       P f = classes.getPath(CONFIG_PATH);
       URL url = classes.getURL(f);
-      String s = Tools.read(url);
-      JSON json = (JSON)JSON.parse(s);
+      InputStream in = url.openStream();
+      JSON json;
+      try
+      {
+         json = (JSON)JSON.parse(new BufferedReader(new InputStreamReader(in, "UTF-8")));
+      }
+      finally
+      {
+         Tools.safeClose(in);
+      }
 
       // Get the application name
       String appName = config.getInitParameter("juzu.app_name");
@@ -261,26 +553,16 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
       Field field = clazz.getDeclaredField("DESCRIPTOR");
       ApplicationDescriptor descriptor = (ApplicationDescriptor)field.get(null);
 
-      // Find the juzu jar
-      URL mainURL = null;
-      for (URL jarURL : jarURLs)
+      // The juzu jar is shared by the portlets of the web application
+      JarFileSystem libs;
+      try
       {
-         URL configURL = new URL("jar:" + jarURL.toString() + "!/org/juzu/impl/application/ApplicationBootstrap.class");
-         try
-         {
-            configURL.openStream();
-            mainURL = jarURL;
-            break;
-         }
-         catch (IOException ignore)
-         {
-         }
+         libs = runtime.getJuzuJar();
       }
-      if (mainURL == null)
+      catch (IllegalStateException e)
       {
-         throw new PortletException("Cannot find juzu jar among " + jarURLs);
+         throw new PortletException(e.getMessage());
       }
-      JarFileSystem libs = new JarFileSystem(new JarFile(new File(mainURL.toURI())));
 
       //
       String inject = config.getInitParameter("juzu.inject");
@@ -329,10 +611,43 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
       System.out.println("[" + config.getPortletName() + "] Starting " + descriptor.getName());
       bootstrap.start();
       applicationContext = bootstrap.getContext();
+      this.bootstrap = bootstrap;
+   }
+
+   private void stop()
+   {
+      if (applicationContext != null)
+      {
+         FragmentCache fragments = applicationContext.getFragments();
+         if (fragments.getHitCount() + fragments.getMissCount() > 0)
+         {
+            config.getPortletContext().log("Stopping application with " + fragments);
+         }
+      }
+      if (bootstrap != null)
+      {
+         bootstrap.stop();
+         bootstrap = null;
+      }
+      applicationContext = null;
    }
 
    public void processAction(ActionRequest request, ActionResponse response) throws PortletException, IOException
    {
+      awaitBoot();
+      Collection<CompilationError> errors = boot();
+
+      // The compilation errors are displayed by the render phase that follows
+      if (errors != null && errors.size() > 0)
+      {
+         return;
+      }
+      if (errors != null)
+      {
+         purgeSession(request);
+      }
+
+      //
       try
       {
          applicationContext.invoke(new PortletActionBridge(request, response));
@@ -360,6 +675,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
 
    public void render(final RenderRequest request, final RenderResponse response) throws PortletException, IOException
    {
+      awaitBoot();
       Collection<CompilationError> errors = boot();
 
       //
@@ -379,7 +695,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
                {
                   try
                   {
-                     PortletRenderBridge bridge = new PortletRenderBridge(request, response, !prod);
+                     PortletRenderBridge bridge = new PortletRenderBridge(request, response, buffer, chunkSize);
                      applicationContext.invoke(bridge);
                      bridge.commit();
                   }
@@ -419,6 +735,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
    
    public void serveResource(final ResourceRequest request, final ResourceResponse response) throws PortletException, IOException
    {
+      awaitBoot();
       Collection<CompilationError> errors = boot();
 
       //
@@ -438,7 +755,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
                {
                   try
                   {
-                     PortletResourceBridge bridge = new PortletResourceBridge(request, response, !prod);
+                     PortletResourceBridge bridge = new PortletResourceBridge(request, response, buffer, chunkSize);
                      applicationContext.invoke(bridge);
                      bridge.commit();
                   }
@@ -664,5 +981,33 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
 
    public void destroy()
    {
+      if (initBoot != null)
+      {
+         try
+         {
+            awaitBoot();
+         }
+         catch (PortletException ignore)
+         {
+         }
+      }
+      if (devWatcher != null)
+      {
+         devWatcher.stop();
+         devWatcher = null;
+      }
+      if (compilerContext != null)
+      {
+         try
+         {
+            compilerContext.close();
+         }
+         catch (IOException ignore)
+         {
+         }
+         compilerContext = null;
+      }
+      stop();
+      release();
    }
 }
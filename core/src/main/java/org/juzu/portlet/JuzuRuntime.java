@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.portlet;
+
+import org.juzu.impl.spi.fs.jar.JarFileSystem;
+import org.juzu.impl.spi.fs.war.WarFileSystem;
+import org.juzu.impl.utils.Tools;
+
+import javax.portlet.PortletContext;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The infrastructure shared by the Juzu portlets of a web application: the jars of the application are
+ * discovered once, the juzu jar file system is created once and the applications are booted on a bounded
+ * executor so the portlets of the web application boot in parallel.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JuzuRuntime
+{
+
+   /** The portlet context attribute holding the runtime. */
+   private static final String ATTRIBUTE_NAME = JuzuRuntime.class.getName();
+
+   /** Guards the runtime attribute, the portlet context objects of a web application may not be the same. */
+   private static final Object lock = new Object();
+
+   /**
+    * Acquire the runtime of a portlet context, it must be released with {@link #release()} when the portlet
+    * does not use it anymore.
+    *
+    * @param context the portlet context
+    * @return the runtime
+    */
+   public static JuzuRuntime acquire(PortletContext context)
+   {
+      synchronized (lock)
+      {
+         JuzuRuntime runtime = (JuzuRuntime)context.getAttribute(ATTRIBUTE_NAME);
+         if (runtime == null)
+         {
+            runtime = new JuzuRuntime(context);
+            context.setAttribute(ATTRIBUTE_NAME, runtime);
+         }
+         runtime.references++;
+         return runtime;
+      }
+   }
+
+   /** . */
+   private final PortletContext context;
+
+   /** . */
+   private int references;
+
+   /** . */
+   private List<URL> jarURLs;
+
+   /** . */
+   private JarFileSystem juzuJar;
+
+   /** . */
+   private ExecutorService executor;
+
+   private JuzuRuntime(PortletContext context)
+   {
+      this.context = context;
+   }
+
+   /**
+    * Returns the jars in WEB-INF/lib .
+    *
+    * @return the jar urls
+    * @throws IOException any io exception
+    */
+   public synchronized List<URL> getJarURLs() throws IOException
+   {
+      if (jarURLs == null)
+      {
+         List<URL> jars = new ArrayList<URL>();
+         WarFileSystem lib = WarFileSystem.create(context, "/WEB-INF/lib/", true);
+         for (Iterator<String> i = lib.getChildren(lib.getRoot());i.hasNext();)
+         {
+            jars.add(lib.getURL(i.next()));
+         }
+         jarURLs = Collections.unmodifiableList(jars);
+      }
+      return jarURLs;
+   }
+
+   /**
+    * Returns the file system of the juzu jar.
+    *
+    * @return the juzu jar file system
+    * @throws IOException any io exception
+    * @throws IllegalStateException when the juzu jar cannot be found
+    */
+   public synchronized JarFileSystem getJuzuJar() throws IOException, IllegalStateException
+   {
+      if (juzuJar == null)
+      {
+         List<URL> jarURLs = getJarURLs();
+         for (URL jarURL : jarURLs)
+         {
+            URL configURL = new URL("jar:" + jarURL + "!/org/juzu/impl/application/ApplicationBootstrap.class");
+            InputStream in = null;
+            try
+            {
+               in = configURL.openStream();
+               juzuJar = new JarFileSystem(new File(jarURL.toURI()));
+               break;
+            }
+            catch (IOException ignore)
+            {
+            }
+            catch (URISyntaxException e)
+            {
+               throw new IOException("Cannot handle jar url " + jarURL);
+            }
+            finally
+            {
+               Tools.safeClose(in);
+            }
+         }
+         if (juzuJar == null)
+         {
+            throw new IllegalStateException("Cannot find juzu jar among " + jarURLs);
+         }
+      }
+      return juzuJar;
+   }
+
+   /**
+    * Submit a boot task to the executor shared by the portlets, its size is the number of processors.
+    *
+    * @param task the task
+    * @param <T> the task result type
+    * @return the future of the task
+    */
+   public synchronized <T> Future<T> boot(Callable<T> task)
+   {
+      if (executor == null)
+      {
+         final AtomicInteger count = new AtomicInteger();
+         executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+         {
+            public Thread newThread(Runnable r)
+            {
+               Thread thread = new Thread(r, "juzu-boot-" + count.incrementAndGet());
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor.submit(task);
+   }
+
+   /**
+    * Release the runtime, the last release shuts down the executor, closes the juzu jar and removes the runtime
+    * from the portlet context.
+    */
+   public void release()
+   {
+      synchronized (lock)
+      {
+         if (--references == 0)
+         {
+            context.removeAttribute(ATTRIBUTE_NAME);
+            synchronized (this)
+            {
+               if (executor != null)
+               {
+                  executor.shutdown();
+                  executor = null;
+               }
+               if (juzuJar != null)
+               {
+                  try
+                  {
+                     juzuJar.close();
+                  }
+                  catch (IOException ignore)
+                  {
+                  }
+                  juzuJar = null;
+               }
+            }
+         }
+      }
+   }
+}
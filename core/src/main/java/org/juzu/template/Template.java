@@ -43,10 +43,19 @@ public abstract class Template
    /** . */
    private final ApplicationContext applicationContext;
 
+   /** . */
+   private final String title;
+
    public Template(ApplicationContext applicationContext, String path)
+   {
+      this(applicationContext, path, null);
+   }
+
+   public Template(ApplicationContext applicationContext, String path, String title)
    {
       this.applicationContext = applicationContext;
       this.path = path;
+      this.title = title;
    }
 
    public String getPath()
@@ -54,6 +63,17 @@ public abstract class Template
       return path;
    }
 
+   /**
+    * Returns the title declared by the template when it is known before rendering, it allows a streaming
+    * response to send the title before the content.
+    *
+    * @return the title or null
+    */
+   public String getTitle()
+   {
+      return title;
+   }
+
    public void render() throws TemplateExecutionException, UndeclaredIOException
    {
       render(Collections.<String, Object>emptyMap(), null);
@@ -131,7 +151,8 @@ public abstract class Template
          @Override
          public String getTitle()
          {
-            return trc.getTitle();
+            String rendered = trc.getTitle();
+            return rendered != null ? rendered : title;
          }
 
          public void send(Printer printer) throws IOException
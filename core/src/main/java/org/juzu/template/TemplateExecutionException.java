@@ -60,6 +60,11 @@ public class TemplateExecutionException extends ApplicationException
       this.text = text;
    }
 
+   public String getTemplateId()
+   {
+      return templateId;
+   }
+
    public String getText()
    {
       return text;
@@ -73,7 +78,7 @@ public class TemplateExecutionException extends ApplicationException
    @Override
    public String getMessage()
    {
-      StringBuilder sb = new StringBuilder("Groovy template exception");
+      StringBuilder sb = new StringBuilder("Template exception");
       if (location != null)
       {
          sb.append(" at ").append(location);
@@ -20,6 +20,7 @@
 package org.juzu.template;
 
 import org.juzu.impl.application.ApplicationException;
+import org.juzu.impl.application.FragmentCache;
 import org.juzu.impl.spi.template.TemplateStub;
 import org.juzu.text.Printer;
 
@@ -104,6 +105,48 @@ public class TemplateRenderContext
       return null;
    }
 
+   /**
+    * Returns the cache of the rendered fragments for the specified scope, the default implementation returns null.
+    *
+    * @param scope the scope name, <code>application</code> or <code>session</code>
+    * @return the fragment cache or null when the scope is not available
+    */
+   public FragmentCache resolveFragmentCache(String scope)
+   {
+      return null;
+   }
+
+   /**
+    * Renders a body with another printer, the current printer is restored after the body is rendered.
+    *
+    * @param body the body to render
+    * @param printer the printer
+    * @throws NullPointerException if any argument is null
+    */
+   public void render(Renderable body, Printer printer) throws NullPointerException
+   {
+      if (body == null)
+      {
+         throw new NullPointerException("No null body accepted");
+      }
+      if (printer == null)
+      {
+         throw new NullPointerException("No null printer accepted");
+      }
+
+      //
+      Printer previous = this.printer;
+      this.printer = printer;
+      try
+      {
+         body.render(this);
+      }
+      finally
+      {
+         this.printer = previous;
+      }
+   }
+
    public void render(Printer printer) throws IOException
    {
       if (this.printer != null)
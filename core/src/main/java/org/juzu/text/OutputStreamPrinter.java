@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A printer writing bytes to an output stream. The pre encoded bytes of a {@link CharArray} are written as is
+ * when the charset is <code>UTF-8</code>, any other text is encoded with a reusable encoder into a reusable
+ * byte buffer.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class OutputStreamPrinter implements Printer
+{
+
+   /** . */
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   /** . */
+   protected final OutputStream out;
+
+   /** . */
+   private final CharsetEncoder encoder;
+
+   /** . */
+   private final boolean utf8;
+
+   /** . */
+   private final ByteBuffer buffer;
+
+   /** . */
+   private final char[] single;
+
+   /** . */
+   private final char[] pair;
+
+   /** A high surrogate written alone that waits for its low surrogate, zero when there is none. */
+   private char pending;
+
+   public OutputStreamPrinter(OutputStream out)
+   {
+      this(out, UTF_8);
+   }
+
+   public OutputStreamPrinter(OutputStream out, Charset charset)
+   {
+      this(out, charset, 1024);
+   }
+
+   public OutputStreamPrinter(OutputStream out, Charset charset, int bufferSize)
+   {
+      if (out == null)
+      {
+         throw new NullPointerException("No null output stream accepted");
+      }
+      if (charset == null)
+      {
+         throw new NullPointerException("No null charset accepted");
+      }
+      if (bufferSize < 16)
+      {
+         throw new IllegalArgumentException("Buffer size " + bufferSize + " is too small");
+      }
+
+      //
+      this.out = out;
+      this.encoder = charset.newEncoder().
+         onMalformedInput(CodingErrorAction.REPLACE).
+         onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.utf8 = UTF_8.equals(charset);
+      this.buffer = ByteBuffer.allocate(bufferSize);
+      this.single = new char[1];
+      this.pair = new char[2];
+      this.pending = 0;
+   }
+
+   public void write(char c) throws IOException
+   {
+      if (Character.isHighSurrogate(c))
+      {
+         // Wait for the low surrogate so the pair is encoded as a single code point
+         encodePending();
+         pending = c;
+      }
+      else
+      {
+         single[0] = c;
+         encode(CharBuffer.wrap(single));
+      }
+   }
+
+   public void write(String s) throws IOException
+   {
+      encode(CharBuffer.wrap(s));
+   }
+
+   public void write(CharSequence s) throws IOException
+   {
+      encode(CharBuffer.wrap(s));
+   }
+
+   public void write(CharArray chars) throws IOException
+   {
+      if (utf8)
+      {
+         // Keep the ordering with what was previously encoded
+         encodePending();
+         flushBuffer();
+         chars.write(out);
+      }
+      else
+      {
+         chars.write(new Appendable()
+         {
+            public Appendable append(CharSequence csq) throws IOException
+            {
+               encode(CharBuffer.wrap(csq));
+               return this;
+            }
+            public Appendable append(CharSequence csq, int start, int end) throws IOException
+            {
+               encode(CharBuffer.wrap(csq, start, end));
+               return this;
+            }
+            public Appendable append(char c) throws IOException
+            {
+               write(c);
+               return this;
+            }
+         });
+      }
+   }
+
+   /**
+    * Write the pending bytes and flush the underlying stream, a pending high surrogate is replaced since it
+    * cannot be completed anymore.
+    *
+    * @throws IOException any io exception
+    */
+   public void flush() throws IOException
+   {
+      encodePending();
+      flushBuffer();
+      out.flush();
+   }
+
+   private void encode(CharBuffer chars) throws IOException
+   {
+      if (pending != 0)
+      {
+         if (chars.hasRemaining() && Character.isLowSurrogate(chars.get(chars.position())))
+         {
+            pair[0] = pending;
+            pair[1] = chars.get();
+            pending = 0;
+            doEncode(CharBuffer.wrap(pair));
+         }
+         else
+         {
+            encodePending();
+         }
+      }
+      doEncode(chars);
+   }
+
+   /**
+    * Encode the pending high surrogate alone, it is malformed and is replaced.
+    *
+    * @throws IOException any io exception
+    */
+   private void encodePending() throws IOException
+   {
+      if (pending != 0)
+      {
+         pair[0] = pending;
+         pending = 0;
+         doEncode(CharBuffer.wrap(pair, 0, 1));
+      }
+   }
+
+   private void doEncode(CharBuffer chars) throws IOException
+   {
+      // Errors are replaced so we only have to deal with overflows
+      encoder.reset();
+      while (encoder.encode(chars, buffer, true).isOverflow())
+      {
+         flushBuffer();
+      }
+      while (encoder.flush(buffer).isOverflow())
+      {
+         flushBuffer();
+      }
+   }
+
+   private void flushBuffer() throws IOException
+   {
+      if (buffer.position() > 0)
+      {
+         out.write(buffer.array(), 0, buffer.position());
+         buffer.clear();
+      }
+   }
+}
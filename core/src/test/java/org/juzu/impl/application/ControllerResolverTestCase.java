@@ -26,6 +26,8 @@ import org.juzu.metadata.ControllerMethod;
 import org.juzu.test.AbstractTestCase;
 import org.juzu.test.CompilerHelper;
 
+import java.util.Collections;
+
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ControllerResolverTestCase extends AbstractTestCase
 {
@@ -53,6 +55,10 @@ public class ControllerResolverTestCase extends AbstractTestCase
       assertNotNull(cm2);
       assertEquals("fooArg", cm2.getName());
 
+      // Methods are invoked by the generated invoker
+      assertNotNull(cm2.getInvoker());
+      assertNull(cm2.getInvoker().invoke(aClass.newInstance(), Collections.singletonMap("foo", new String[]{"foo_value"})));
+
       //
 //      try
 //      {
@@ -94,6 +100,13 @@ public class ControllerResolverTestCase extends AbstractTestCase
       catch (AmbiguousResolutionException e)
       {
       }
+
+      // Resolution by id is not affected by the ambiguity
+      Class<?> aClass = compiler.assertClass("application.resolver.ambiguous_method.A");
+      ControllerMethod index = desc.getControllerMethod(aClass, "index");
+      assertSame(index, resolver.resolve(Phase.RENDER, index.getId()));
+      assertNull(resolver.resolve(Phase.RENDER, "unknown"));
+      assertNull(resolver.resolve(Phase.ACTION, null));
    }
 
    public void testResolverDefaultController() throws Exception
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.test.AbstractTestCase;
+import org.juzu.text.CharArray;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class FragmentCacheTestCase extends AbstractTestCase
+{
+
+   public void testLRU() throws Exception
+   {
+      FragmentCache cache = new FragmentCache(2);
+      CharArray a = new CharArray.Simple("a");
+      CharArray b = new CharArray.Simple("b");
+      cache.put("a", a, 0);
+      cache.put("b", b, 0);
+      assertSame(a, cache.get("a"));
+
+      // b is the least recently used
+      cache.put("c", new CharArray.Simple("c"), 0);
+      assertEquals(2, cache.getSize());
+      assertEquals(1, cache.getEvictionCount());
+      assertNull(cache.get("b"));
+      assertSame(a, cache.get("a"));
+      assertEquals(2, cache.getHitCount());
+      assertEquals(1, cache.getMissCount());
+      assertEquals("FragmentCache[size=2,maxSize=2,hits=2,misses=1,evictions=1]", cache.toString());
+   }
+
+   public void testTTL() throws Exception
+   {
+      FragmentCache cache = new FragmentCache();
+      CharArray a = new CharArray.Simple("a");
+      cache.put("a", a, 1);
+      cache.put("b", new CharArray.Simple("b"), 0);
+      waitForOneMillis();
+      waitForOneMillis();
+      assertNull(cache.get("a"));
+      assertNotNull(cache.get("b"));
+      assertEquals(1, cache.getSize());
+      assertEquals(1, cache.getEvictionCount());
+   }
+}
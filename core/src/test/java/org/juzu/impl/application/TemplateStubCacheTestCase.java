@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.test.AbstractInjectTestCase;
+import org.juzu.test.request.MockApplication;
+import org.juzu.test.request.MockClient;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class TemplateStubCacheTestCase extends AbstractInjectTestCase
+{
+
+   public void testCache() throws Exception
+   {
+      MockApplication<?> app = application("template", "tag", "decorate").init();
+      InternalApplicationContext context = (InternalApplicationContext)app.getContext();
+      TemplateStubCache templates = context.getTemplates();
+
+      //
+      MockClient client = app.client();
+      assertEquals("<foo>bar</foo>", client.render().getContent());
+      assertEquals(2, templates.getSize());
+      assertEquals(2, templates.getMissCount());
+      assertEquals(0, templates.getHitCount());
+
+      //
+      TemplateStub index = context.resolveTemplateStub("index.gtmpl");
+      assertSame(index, context.resolveTemplateStub("index.gtmpl"));
+      assertEquals("<foo>bar</foo>", client.render().getContent());
+      assertEquals(2, templates.getMissCount());
+      assertEquals(4, templates.getHitCount());
+
+      //
+      templates.clear();
+      assertEquals(0, templates.getSize());
+      assertNotSame(index, context.resolveTemplateStub("index.gtmpl"));
+      assertEquals(3, templates.getMissCount());
+   }
+}
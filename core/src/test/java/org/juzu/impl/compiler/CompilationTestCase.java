@@ -20,7 +20,13 @@
 package org.juzu.impl.compiler;
 
 import junit.framework.AssertionFailedError;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.SimpleFileSystem;
+import org.juzu.impl.spi.fs.classloader.ClassLoaderFileSystem;
 import org.juzu.impl.spi.fs.disk.DiskFileSystem;
 import org.juzu.impl.spi.fs.ram.RAMDir;
 import org.juzu.impl.spi.fs.ram.RAMFile;
@@ -45,6 +51,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -380,6 +388,80 @@ public class CompilationTestCase extends AbstractTestCase
       assertEquals(Collections.<CompilationError>emptyList(), compiler.compile("compiler/incremental/B.java"));
    }
 
+   public void testContext() throws IOException
+   {
+      CompilerContext context = new CompilerContext();
+      ClassLoaderFileSystem classPath = new ClassLoaderFileSystem(Thread.currentThread().getContextClassLoader());
+      RAMFileSystem sourcePath = new RAMFileSystem();
+      RAMDir pkg = sourcePath.addDir(sourcePath.getRoot(), "compiler").addDir("context");
+      pkg.addFile("A.java").update("package compiler.context; public class A {}");
+
+      // Read only class path entries are shared, writable ones are not
+      RAMFileSystem output = new RAMFileSystem();
+      assertSame(context.getClassPath(classPath), context.getClassPath(classPath));
+      assertNotSame(context.getClassPath(output), context.getClassPath(output));
+
+      //
+      Compiler compiler = new Compiler(context, sourcePath, Collections.<SimpleFileSystem<?>>singletonList(classPath), output, output);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertNotNull(output.getPath("compiler", "context", "A.class"));
+
+      // Compile again with the same context
+      output = new RAMFileSystem();
+      compiler = new Compiler(context, sourcePath, Collections.<SimpleFileSystem<?>>singletonList(classPath), output, output);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertNotNull(output.getPath("compiler", "context", "A.class"));
+
+      //
+      Object manager = context.getClassPath(classPath);
+      context.invalidate(classPath);
+      assertNotSame(manager, context.getClassPath(classPath));
+      context.close();
+   }
+
+   public void testContextJarChange() throws Exception
+   {
+      File f = File.createTempFile("test", ".jar");
+      f.deleteOnExit();
+      writeJar(f, "package compiler.jar; public class Lib {}");
+
+      //
+      CompilerContext context = new CompilerContext();
+      ClassLoader cl = new URLClassLoader(new URL[]{f.toURI().toURL()}, ClassLoader.getSystemClassLoader());
+      ClassLoaderFileSystem classPath = new ClassLoaderFileSystem(cl);
+      RAMFileSystem sourcePath = new RAMFileSystem();
+      RAMDir pkg = sourcePath.addDir(sourcePath.getRoot(), "compiler").addDir("jar");
+      pkg.addFile("A.java").update("package compiler.jar; public class A { { Lib.m(); } }");
+      RAMFileSystem output = new RAMFileSystem();
+      Compiler compiler = new Compiler(context, sourcePath, Collections.<SimpleFileSystem<?>>singletonList(classPath), output, output);
+      assertEquals(1, compiler.compile().size());
+
+      // The jar changes
+      writeJar(f, "package compiler.jar; public class Lib { public static void m() {} }");
+      classPath.invalidate();
+      context.invalidate(classPath);
+
+      //
+      output = new RAMFileSystem();
+      compiler = new Compiler(context, sourcePath, Collections.<SimpleFileSystem<?>>singletonList(classPath), output, output);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertNotNull(output.getPath("compiler", "jar", "A.class"));
+      context.close();
+   }
+
+   private void writeJar(File f, String lib) throws IOException
+   {
+      RAMFileSystem sourcePath = new RAMFileSystem();
+      sourcePath.addDir(sourcePath.getRoot(), "compiler").addDir("jar").addFile("Lib.java").update(lib);
+      RAMFileSystem output = new RAMFileSystem();
+      Compiler compiler = new Compiler(sourcePath, output, output);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      byte[] bytes = Tools.bytes(output.getContent(output.getPath("compiler", "jar", "Lib.class")).getInputStream());
+      ShrinkWrap.create(JavaArchive.class).
+         addAsResource(new ByteArrayAsset(bytes), "compiler/jar/Lib.class").
+         as(ZipExporter.class).exportTo(f, true);
+   }
+
    @javax.annotation.processing.SupportedAnnotationTypes({"*"})
    @javax.annotation.processing.SupportedSourceVersion(javax.lang.model.SourceVersion.RELEASE_6)
    public static class ReadResource extends AbstractProcessor
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.juzu.impl.compiler;
+
+import org.juzu.impl.spi.fs.ram.RAMDir;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.test.AbstractTestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class DependenciesTestCase extends AbstractTestCase
+{
+
+   public void testRecompile() throws IOException
+   {
+      RAMFileSystem sourcePath = new RAMFileSystem();
+      RAMDir pkg = sourcePath.addDir(sourcePath.getRoot(), "compiler").addDir("dependencies");
+      pkg.addFile("A.java").update("package compiler.dependencies; public class A { public static class Inner {} public void m() {} } class Secondary {}");
+      pkg.addFile("B.java").update("package compiler.dependencies; public class B { void m(A a) { a.m(); } }");
+      pkg.addFile("C.java").update("package compiler.dependencies; public class C {}");
+      pkg.addFile("D.java").update("package compiler.dependencies; public class D { B b; }");
+      pkg.addFile("E.java").update("package compiler.dependencies; public class E { public static final int X = 1; }");
+      pkg.addFile("F.java").update("package compiler.dependencies; public class F { int x = E.X; }");
+      RAMFileSystem output = new RAMFileSystem();
+      Compiler compiler = new Compiler(sourcePath, output);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertNotNull(output.getPath("compiler", "dependencies", "Secondary.class"));
+
+      // A unit is recompiled with the units depending on it, a secondary class belongs to its unit
+      Dependencies dependencies = new Dependencies(output);
+      assertEquals(units("A", "B", "D"), dependencies.getDependents(units("A")));
+      assertEquals(units("B", "D"), dependencies.getDependents(units("B")));
+      assertEquals(units("C"), dependencies.getDependents(units("C")));
+
+      // The uses of a constant are inlined and cannot be found
+      assertNull(dependencies.getDependents(units("E")));
+
+      // Remove a class from a unit
+      pkg.getChild("A.java").update("package compiler.dependencies; public class A { public void m() {} }");
+      Set<String> units = dependencies.getDependents(units("A"));
+      dependencies.removeClasses(units);
+      assertNull(output.getPath("compiler", "dependencies", "A.class"));
+      assertNull(output.getPath("compiler", "dependencies", "A$Inner.class"));
+      assertNull(output.getPath("compiler", "dependencies", "Secondary.class"));
+      assertNull(output.getPath("compiler", "dependencies", "B.class"));
+      assertNull(output.getPath("compiler", "dependencies", "D.class"));
+      assertNotNull(output.getPath("compiler", "dependencies", "C.class"));
+
+      // Recompile against the previous output
+      compiler = new Compiler(sourcePath, output, output, output);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile(units.toArray(new String[units.size()])));
+      assertNotNull(output.getPath("compiler", "dependencies", "A.class"));
+      assertNotNull(output.getPath("compiler", "dependencies", "B.class"));
+      assertNotNull(output.getPath("compiler", "dependencies", "D.class"));
+      assertNull(output.getPath("compiler", "dependencies", "A$Inner.class"));
+      assertNull(output.getPath("compiler", "dependencies", "Secondary.class"));
+   }
+
+   private static Set<String> units(String... names)
+   {
+      Set<String> units = new HashSet<String>();
+      for (String name : names)
+      {
+         units.add("compiler/dependencies/" + name + ".java");
+      }
+      return units;
+   }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.impl.fs;
+
+import org.juzu.impl.spi.fs.ram.RAMFile;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.test.AbstractTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class WatcherTestCase extends AbstractTestCase
+{
+
+   public void testCheck() throws IOException
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      FileSystemWatcher<RAMPath> watcher = new FileSystemWatcher<RAMPath>(fs);
+
+      //
+      assertFalse(watcher.check());
+      assertFalse(watcher.isDirty());
+
+      //
+      RAMFile bar = fs.addFile(fs.getRoot(), "bar.txt");
+      waitForOneMillis();
+      assertTrue(watcher.check());
+      assertTrue(watcher.isDirty());
+      assertFalse(watcher.check());
+      assertTrue(watcher.isDirty());
+      assertEquals(Collections.singletonMap("bar.txt", Change.ADD), watcher.drain());
+      assertFalse(watcher.isDirty());
+      assertEquals(Collections.<String, Change>emptyMap(), watcher.drain());
+
+      //
+      bar.update("value");
+      waitForOneMillis();
+      assertTrue(watcher.check());
+      assertEquals(Collections.singletonMap("bar.txt", Change.UPDATE), watcher.drain());
+   }
+
+   public void testStart() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      FileSystemWatcher<RAMPath> watcher = new FileSystemWatcher<RAMPath>(fs);
+      fs.addFile(fs.getRoot(), "foo.txt");
+
+      // Existing files are part of the initial snapshot
+      watcher.start(10);
+      try
+      {
+         assertFalse(watcher.isDirty());
+         waitForOneMillis();
+         fs.addFile(fs.getRoot(), "bar.txt");
+         for (int i = 0;i < 500 && !watcher.isDirty();i++)
+         {
+            Thread.sleep(10);
+         }
+         assertTrue(watcher.isDirty());
+         assertEquals(Collections.singletonMap("bar.txt", Change.ADD), watcher.drain());
+      }
+      finally
+      {
+         watcher.stop();
+      }
+   }
+
+   public void testFailure() throws Exception
+   {
+      final AtomicBoolean fail = new AtomicBoolean();
+      RAMFileSystem fs = new RAMFileSystem()
+      {
+         @Override
+         public Iterator<RAMPath> getChildren(RAMPath dir) throws IOException
+         {
+            if (fail.get())
+            {
+               throw new IOException();
+            }
+            return super.getChildren(dir);
+         }
+      };
+      FileSystemWatcher<RAMPath> watcher = new FileSystemWatcher<RAMPath>(fs);
+
+      // A failed scan is reported by the next drain
+      watcher.start(10);
+      try
+      {
+         fail.set(true);
+         for (int i = 0;i < 500 && !watcher.isDirty();i++)
+         {
+            Thread.sleep(10);
+         }
+         assertTrue(watcher.isDirty());
+         try
+         {
+            watcher.drain();
+            fail();
+         }
+         catch (IOException expected)
+         {
+         }
+
+         // The watcher keeps on checking
+         fail.set(false);
+         waitForOneMillis();
+         fs.addFile(fs.getRoot(), "bar.txt");
+         for (int i = 0;i < 500 && !watcher.isDirty();i++)
+         {
+            Thread.sleep(10);
+         }
+         assertEquals(Collections.singletonMap("bar.txt", Change.ADD), watcher.drain());
+      }
+      finally
+      {
+         watcher.stop();
+      }
+   }
+}
@@ -53,6 +53,26 @@ public class ScopeTestCase extends AbstractInjectTestCase
       assertNotNull(Registry.get("car"));
    }
 
+   public void testSingletonController() throws Exception
+   {
+      MockApplication<?> app = application("request", "scope", "singleton").init();
+
+      //
+      MockClient client = app.client();
+      String identity = client.render().getContent();
+      assertEquals(identity, client.render().getContent());
+   }
+
+   public void testApplicationScopedController() throws Exception
+   {
+      MockApplication<?> app = application("request", "scope", "application").init();
+
+      //
+      MockClient client = app.client();
+      String identity = client.render().getContent();
+      assertEquals(identity, client.render().getContent());
+   }
+
    public void testFlashScope() throws Exception
    {
       MockApplication<?> app = application("request", "scope", "flash");
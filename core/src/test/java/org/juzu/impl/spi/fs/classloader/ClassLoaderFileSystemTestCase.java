@@ -24,12 +24,20 @@ import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.asset.StringAsset;
 import org.jboss.shrinkwrap.api.exporter.ZipExporter;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.juzu.impl.utils.DevClassLoader;
 import org.juzu.impl.utils.Tools;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ClassLoaderFileSystemTestCase extends TestCase
@@ -71,4 +79,134 @@ public class ClassLoaderFileSystemTestCase extends TestCase
       //
       assertEquals(null, fs.getPath("juu"));
    }
+
+   public void testSeveralJars() throws Exception
+   {
+      File a = File.createTempFile("test", ".jar");
+      a.deleteOnExit();
+      ShrinkWrap.create(JavaArchive.class).
+         addAsResource(new StringAsset("a"), "foo/a.txt").
+         as(ZipExporter.class).exportTo(a, true);
+      File b = File.createTempFile("test", ".jar");
+      b.deleteOnExit();
+      ShrinkWrap.create(JavaArchive.class).
+         addAsResource(new StringAsset("b"), "foo/b.txt").
+         as(ZipExporter.class).exportTo(b, true);
+
+      //
+      ClassLoader cl = new URLClassLoader(new URL[]{a.toURI().toURL(), b.toURI().toURL()}, ClassLoader.getSystemClassLoader());
+      ClassLoaderFileSystem fs = new ClassLoaderFileSystem(cl);
+      String foo = fs.getPath("foo");
+      assertEquals(Arrays.asList("foo/a.txt", "foo/b.txt"), Tools.list(fs.getChildren(foo)));
+      assertEquals(Arrays.asList("foo/a.txt", "foo/b.txt"), Tools.list(fs.getChildren(foo)));
+   }
+
+   public void testDirectory() throws Exception
+   {
+      File root = File.createTempFile("test", "");
+      assertTrue(root.delete());
+      File bar = new File(new File(root, "foo"), "bar");
+      assertTrue(bar.mkdirs());
+      Tools.write("foo/bar.txt_value", new File(bar.getParentFile(), "bar.txt"));
+      Tools.write("foo/bar/juu.txt_value", new File(bar, "juu.txt"));
+
+      //
+      ClassLoader cl = new URLClassLoader(new URL[]{root.toURI().toURL()}, ClassLoader.getSystemClassLoader());
+      ClassLoaderFileSystem fs = new ClassLoaderFileSystem(cl);
+      String foo = fs.getPath("foo");
+      assertEquals("foo/", foo);
+      assertEquals(Arrays.asList("foo/bar.txt"), Tools.list(fs.getChildren(foo)));
+      assertEquals(Arrays.asList("foo/bar/juu.txt"), Tools.list(fs.getChildren(fs.getPath("foo", "bar"))));
+   }
+
+   public void testInvalidate() throws Exception
+   {
+      File f = File.createTempFile("test", ".jar");
+      f.deleteOnExit();
+      ShrinkWrap.create(JavaArchive.class).
+         addAsResource(new StringAsset("a"), "foo/a.txt").
+         as(ZipExporter.class).exportTo(f, true);
+
+      //
+      ClassLoader cl = new URLClassLoader(new URL[]{f.toURI().toURL()}, ClassLoader.getSystemClassLoader());
+      ClassLoaderFileSystem fs = new ClassLoaderFileSystem(cl);
+      String foo = fs.getPath("foo");
+      assertEquals(Arrays.asList("foo/a.txt"), Tools.list(fs.getChildren(foo)));
+
+      // The jar changes
+      ShrinkWrap.create(JavaArchive.class).
+         addAsResource(new StringAsset("a2"), "foo/a.txt").
+         addAsResource(new StringAsset("b"), "foo/b.txt").
+         as(ZipExporter.class).exportTo(f, true);
+      assertEquals(Arrays.asList("foo/a.txt"), Tools.list(fs.getChildren(foo)));
+
+      //
+      fs.invalidate();
+      assertEquals(Arrays.asList("foo/a.txt", "foo/b.txt"), Tools.list(fs.getChildren(foo)));
+      assertEquals("a2", fs.getContent("foo/a.txt").getCharSequence().toString());
+   }
+
+   public void testHidden() throws Exception
+   {
+      File war = File.createTempFile("test", "");
+      assertTrue(war.delete());
+      File classes = new File(war, "WEB-INF/classes");
+      assertTrue(new File(classes, "app").mkdirs());
+      Tools.write("app/A.class_value", new File(classes, "app/A.class"));
+      File f = File.createTempFile("test", ".jar");
+      f.deleteOnExit();
+      ShrinkWrap.create(JavaArchive.class).
+         addAsResource(new StringAsset("a"), "foo/a.txt").
+         as(ZipExporter.class).exportTo(f, true);
+
+      // The dev class loader hides the classes folder
+      ClassLoader cl = new URLClassLoader(new URL[]{classes.toURI().toURL(), f.toURI().toURL()}, ClassLoader.getSystemClassLoader());
+      ClassLoaderFileSystem fs = new ClassLoaderFileSystem(new DevClassLoader(cl));
+      assertEquals(null, fs.getPath("app"));
+      assertEquals(Arrays.asList("foo/a.txt"), Tools.list(fs.getChildren(fs.getPath("foo"))));
+   }
+
+   public void testUnknownProtocol() throws Exception
+   {
+      final URL url = new URL("custom", "", -1, "/foo/a.txt", new URLStreamHandler()
+      {
+         @Override
+         protected URLConnection openConnection(URL u) throws IOException
+         {
+            return new URLConnection(u)
+            {
+               @Override
+               public void connect() throws IOException
+               {
+               }
+
+               @Override
+               public InputStream getInputStream() throws IOException
+               {
+                  return new ByteArrayInputStream("a".getBytes());
+               }
+            };
+         }
+      });
+      ClassLoader cl = new ClassLoader(ClassLoader.getSystemClassLoader())
+      {
+         @Override
+         protected URL findResource(String name)
+         {
+            return "foo/a.txt".equals(name) ? url : null;
+         }
+
+         @Override
+         protected Enumeration<URL> findResources(String name) throws IOException
+         {
+            return Collections.enumeration("foo/a.txt".equals(name) ? Collections.singletonList(url) : Collections.<URL>emptyList());
+         }
+      };
+
+      // The resource can be read even though it cannot be listed
+      ClassLoaderFileSystem fs = new ClassLoaderFileSystem(cl);
+      assertEquals("foo/a.txt", fs.getPath("foo", "a.txt"));
+      assertEquals("a", fs.getContent("foo/a.txt").getCharSequence().toString());
+      assertEquals(null, fs.getPath("foo", "b.txt"));
+   }
 }
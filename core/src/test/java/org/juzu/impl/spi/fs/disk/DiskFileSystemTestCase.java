@@ -20,11 +20,24 @@
 package org.juzu.impl.spi.fs.disk;
 
 import junit.framework.TestCase;
+import org.juzu.impl.fs.Visitor;
 import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.impl.utils.Content;
+import org.juzu.impl.utils.Tools;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class DiskFileSystemTestCase extends TestCase
@@ -40,6 +53,88 @@ public class DiskFileSystemTestCase extends TestCase
       doTest(new DiskFileSystem(root, "compiler", "disk"), root);
    }
    
+   public void testParallelCopy() throws Exception
+   {
+      RAMFileSystem src = new RAMFileSystem();
+      for (int i = 0;i < 10;i++)
+      {
+         for (int j = 0;j < 10;j++)
+         {
+            RAMPath file = src.makeFile(Arrays.asList("dir" + i), "file" + j + ".txt");
+            src.setContent(file, new Content(0, "content" + i + j));
+         }
+      }
+      File root = File.createTempFile("test", "");
+      assertTrue(root.delete());
+      assertTrue(root.mkdirs());
+      DiskFileSystem dst = new DiskFileSystem(root);
+      assertTrue(dst.isConcurrent());
+
+      //
+      ReadFileSystem.copy(src, dst, 4);
+      for (int i = 0;i < 10;i++)
+      {
+         File dir = new File(root, "dir" + i);
+         assertTrue(dir.isDirectory());
+         assertEquals(10, dir.list().length);
+         for (int j = 0;j < 10;j++)
+         {
+            assertEquals("content" + i + j, Tools.read(new File(dir, "file" + j + ".txt")));
+         }
+      }
+   }
+
+   public void testParallelTraverse() throws Exception
+   {
+      File root = File.createTempFile("test", "");
+      assertTrue(root.delete());
+      File bar = new File(new File(root, "foo"), "bar");
+      assertTrue(bar.mkdirs());
+      Tools.write("a", new File(root, "a.txt"));
+      Tools.write("b", new File(bar.getParentFile(), "b.txt"));
+      Tools.write("c", new File(bar, "c.txt"));
+      Tools.write("d", new File(bar, "d.txt"));
+      DiskFileSystem fs = new DiskFileSystem(root);
+
+      //
+      final Set<String> files = Collections.synchronizedSet(new HashSet<String>());
+      final List<String> events = new ArrayList<String>();
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try
+      {
+         fs.traverse(new Visitor<File>()
+         {
+            public boolean enterDir(File dir, String name) throws IOException
+            {
+               events.add("enter:" + name);
+               return true;
+            }
+            public void file(File file, String name) throws IOException
+            {
+               files.add(name);
+            }
+            public void leaveDir(File dir, String name) throws IOException
+            {
+               // The files of the directory have been visited when it is left
+               for (File child : dir.listFiles())
+               {
+                  if (child.isFile() && !files.contains(child.getName()))
+                  {
+                     events.add("missing:" + child.getName());
+                  }
+               }
+               events.add("leave:" + name);
+            }
+         }, executor);
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+      assertEquals(new HashSet<String>(Arrays.asList("a.txt", "b.txt", "c.txt", "d.txt")), files);
+      assertEquals(Arrays.asList("enter:", "enter:foo", "enter:bar", "leave:bar", "leave:foo", "leave:"), events);
+   }
+
    private <P> void doTest(ReadFileSystem<P> fs, P root) throws IOException
    {
       
@@ -22,10 +22,19 @@ package org.juzu.impl.spi.fs.jar;
 import junit.framework.TestCase;
 import org.juzu.impl.fs.Visitor;
 
+import org.juzu.impl.utils.Tools;
+
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class JarFileSystemTestCase extends TestCase
@@ -58,4 +67,74 @@ public class JarFileSystemTestCase extends TestCase
       URL baseURL = filesystem.getURL();
       assertNotNull(baseURL);
    }
+
+   public void testIndex() throws Exception
+   {
+      File f = File.createTempFile("test", ".jar");
+      f.deleteOnExit();
+      JarOutputStream out = new JarOutputStream(new FileOutputStream(f));
+      out.putNextEntry(new JarEntry("foo/bar/juu.txt"));
+      out.write("juu".getBytes("UTF-8"));
+      out.putNextEntry(new JarEntry("foo/"));
+      out.putNextEntry(new JarEntry("foo/daa.txt"));
+      out.write("daa".getBytes("UTF-8"));
+      out.putNextEntry(new JarEntry("foo/bar/bii.txt"));
+      out.close();
+
+      //
+      JarFileSystem fs = new JarFileSystem(f);
+      JarPath foo = fs.getPath("foo");
+      assertNotNull(foo);
+      assertTrue(fs.isDir(foo));
+      assertEquals(Arrays.asList("bar", "daa.txt"), names(fs, foo));
+      JarPath bar = fs.getPath("foo", "bar");
+      assertEquals(foo, fs.getParent(bar));
+      assertEquals(Arrays.asList("juu.txt", "bii.txt"), names(fs, bar));
+      JarPath juu = fs.getPath("foo", "bar", "juu.txt");
+      assertTrue(fs.isFile(juu));
+      assertEquals("juu", fs.getContent(juu).getCharSequence().toString());
+      assertEquals("", fs.getContent(fs.getPath("foo", "bar", "bii.txt")).getCharSequence().toString());
+      assertEquals("daa", Tools.read(fs.getURL(fs.getPath("foo", "daa.txt")).openStream()));
+      assertNull(fs.getPath("foo", "bar", "daa.txt"));
+
+      // The index is shared
+      JarFileSystem fs2 = new JarFileSystem(new JarFile(f));
+      assertSame(fs.index, fs2.index);
+      assertNotSame(fs.getRoot(), fs2.getRoot());
+   }
+
+   public void testClose() throws Exception
+   {
+      File f = File.createTempFile("test", ".jar");
+      f.deleteOnExit();
+      JarOutputStream out = new JarOutputStream(new FileOutputStream(f));
+      out.putNextEntry(new JarEntry("foo.txt"));
+      out.write("foo".getBytes("UTF-8"));
+      out.close();
+
+      // The jar opened by the file system is opened again after it is closed
+      JarFileSystem fs = new JarFileSystem(f);
+      JarPath foo = fs.getPath("foo.txt");
+      assertEquals("foo", fs.getContent(foo).getCharSequence().toString());
+      fs.close();
+      assertEquals("foo", fs.getContent(foo).getCharSequence().toString());
+      fs.close();
+
+      // A provided jar is not closed
+      JarFile jar = new JarFile(f);
+      fs = new JarFileSystem(jar);
+      fs.close();
+      assertNotNull(jar.getEntry("foo.txt"));
+      jar.close();
+   }
+
+   private static List<String> names(JarFileSystem fs, JarPath dir) throws IOException
+   {
+      List<String> names = new ArrayList<String>();
+      for (Iterator<JarPath> i = fs.getChildren(dir);i.hasNext();)
+      {
+         names.add(fs.getName(i.next()));
+      }
+      return names;
+   }
 }
@@ -24,7 +24,13 @@ import org.juzu.impl.utils.Tools;
 import org.juzu.test.AbstractTestCase;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class RAMFileSystemTestCase extends AbstractTestCase
@@ -80,4 +86,63 @@ public class RAMFileSystemTestCase extends AbstractTestCase
       assertNotNull(baa);
       assertTrue(baa instanceof RAMFile);
    }
+
+   public void testIteratorRemove() throws IOException
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      RAMDir root = fs.getRoot();
+      root.addFile("foo");
+      root.addFile("bar");
+      Iterator<RAMPath> i = fs.getChildren(root);
+      assertEquals("foo", i.next().getName());
+      i.remove();
+      assertEquals("bar", i.next().getName());
+      assertFalse(i.hasNext());
+      assertNull(root.getChild("foo"));
+      assertNotNull(root.getChild("bar"));
+   }
+
+   public void testConcurrentRead() throws Exception
+   {
+      final RAMFileSystem fs = new RAMFileSystem();
+      final RAMFile foo = fs.makeFile(Arrays.asList("a"), "foo.txt").update("0");
+      final URL url = fs.getURL(foo);
+      final CountDownLatch done = new CountDownLatch(1);
+      final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      Thread reader = new Thread()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               while (done.getCount() > 0)
+               {
+                  InputStream in = url.openStream();
+                  String s = Tools.read(in);
+                  Integer.parseInt(s);
+                  for (RAMPath child : fs.getRoot().getChild("a").getChildren())
+                  {
+                     assertNotNull(child.getName());
+                  }
+               }
+            }
+            catch (Throwable t)
+            {
+               failure.set(t);
+            }
+         }
+      };
+      reader.start();
+      RAMDir a = foo.getParent();
+      for (int i = 0;i < 1000;i++)
+      {
+         foo.update(Integer.toString(i));
+         a.addFile("file" + i).del();
+      }
+      done.countDown();
+      reader.join();
+      assertNull(failure.get());
+      assertEquals(1, Tools.list(a.getChildren()).size());
+   }
 }
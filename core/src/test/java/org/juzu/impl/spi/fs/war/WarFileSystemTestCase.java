@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.impl.spi.fs.war;
+
+import org.juzu.impl.utils.Tools;
+import org.juzu.test.AbstractTestCase;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class WarFileSystemTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private Map<String, Set<String>> resources;
+
+   /** . */
+   private int listings;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      resources = new HashMap<String, Set<String>>();
+      resources.put("/WEB-INF/src/", new LinkedHashSet<String>(Arrays.asList("/WEB-INF/src/foo/", "/WEB-INF/src/a.txt")));
+      resources.put("/WEB-INF/src/foo/", new LinkedHashSet<String>(Arrays.asList("/WEB-INF/src/foo/b.txt")));
+      listings = 0;
+   }
+
+   private WarFileSystem create(boolean snapshot)
+   {
+      return new WarFileSystem("/WEB-INF/src/", snapshot)
+      {
+         @Override
+         protected Set<String> doGetResourcePaths(String path) throws IOException
+         {
+            listings++;
+            return resources.get(path);
+         }
+
+         @Override
+         protected URL doGetResource(String path) throws IOException
+         {
+            return null;
+         }
+
+         @Override
+         protected String doGetRealPath(String path) throws IOException
+         {
+            return null;
+         }
+      };
+   }
+
+   public void testLive() throws Exception
+   {
+      WarFileSystem fs = create(false);
+      assertFalse(fs.isSnapshot());
+      assertEquals("/foo/b.txt", fs.getPath("foo", "b.txt"));
+      assertEquals(Arrays.asList("/foo/", "/a.txt"), Tools.list(fs.getChildren(fs.getRoot())));
+
+      //
+      resources.get("/WEB-INF/src/").add("/WEB-INF/src/c.txt");
+      assertEquals("/c.txt", fs.getPath("c.txt"));
+   }
+
+   public void testSnapshot() throws Exception
+   {
+      WarFileSystem fs = create(true);
+      assertTrue(fs.isSnapshot());
+      assertEquals("/foo/b.txt", fs.getPath("foo", "b.txt"));
+      assertEquals("/foo/", fs.getPath("foo"));
+      assertEquals(null, fs.getPath("foo", "c.txt"));
+      assertEquals(Arrays.asList("/foo/", "/a.txt"), Tools.list(fs.getChildren(fs.getRoot())));
+      assertEquals(2, listings);
+
+      // Changes are not seen until the snapshot is invalidated
+      resources.get("/WEB-INF/src/").add("/WEB-INF/src/c.txt");
+      assertEquals(null, fs.getPath("c.txt"));
+      fs.invalidate();
+      assertEquals("/c.txt", fs.getPath("c.txt"));
+   }
+}
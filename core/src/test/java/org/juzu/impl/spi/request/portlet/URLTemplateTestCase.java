@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.request.portlet;
+
+import org.juzu.URLBuilder;
+import org.juzu.metadata.Cardinality;
+import org.juzu.metadata.ControllerMethod;
+import org.juzu.metadata.ControllerParameter;
+import org.juzu.request.Phase;
+import org.juzu.test.AbstractTestCase;
+
+import javax.portlet.BaseURL;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class URLTemplateTestCase extends AbstractTestCase
+{
+
+   /**
+    * A portlet url that formats its parameters in the order they are set.
+    */
+   private static class FakeURL implements BaseURL
+   {
+
+      /** . */
+      private final Map<String, String[]> parameters = new LinkedHashMap<String, String[]>();
+
+      /** . */
+      private final boolean plus;
+
+      /** . */
+      private final String charset;
+
+      /** . */
+      private final boolean repeat;
+
+      private FakeURL(boolean plus, String charset, boolean repeat)
+      {
+         this.plus = plus;
+         this.charset = charset;
+         this.repeat = repeat;
+      }
+
+      public void setParameter(String name, String value)
+      {
+         setParameter(name, value != null ? new String[]{value} : null);
+      }
+
+      public void setParameter(String name, String[] values)
+      {
+         if (values == null)
+         {
+            parameters.remove(name);
+         }
+         else
+         {
+            parameters.put(name, values.clone());
+         }
+      }
+
+      public void setParameters(Map<String, String[]> parameters)
+      {
+         this.parameters.clear();
+         this.parameters.putAll(parameters);
+      }
+
+      public void setSecure(boolean secure)
+      {
+      }
+
+      public Map<String, String[]> getParameterMap()
+      {
+         return parameters;
+      }
+
+      public void write(Writer out) throws IOException
+      {
+         out.write(toString());
+      }
+
+      public void write(Writer out, boolean escapeXML) throws IOException
+      {
+         out.write(escapeXML ? toString().replace("&", "&amp;") : toString());
+      }
+
+      public void addProperty(String key, String value)
+      {
+      }
+
+      public void setProperty(String key, String value)
+      {
+      }
+
+      @Override
+      public String toString()
+      {
+         StringBuilder sb = new StringBuilder("http://localhost/portal");
+         char separator = '?';
+         for (Map.Entry<String, String[]> parameter : parameters.entrySet())
+         {
+            for (String value : parameter.getValue())
+            {
+               sb.append(separator).append(parameter.getKey()).append('=').append(encode(value));
+               separator = '&';
+            }
+         }
+         return repeat ? sb + "#" + sb : sb.toString();
+      }
+
+      private String encode(String value)
+      {
+         try
+         {
+            String encoded = URLEncoder.encode(value, charset);
+            return plus ? encoded : encoded.replace("+", "%20");
+         }
+         catch (IOException e)
+         {
+            throw new AssertionError(e);
+         }
+      }
+   }
+
+   /**
+    * Creates fake urls and counts them, the template creates one url and a builder that falls back creates another.
+    */
+   private static class Factory implements URLTemplate.URLFactory
+   {
+
+      /** . */
+      private final boolean plus;
+
+      /** . */
+      private final String charset;
+
+      /** . */
+      private final boolean repeat;
+
+      /** . */
+      private int count;
+
+      private Factory(boolean plus, String charset, boolean repeat)
+      {
+         this.plus = plus;
+         this.charset = charset;
+         this.repeat = repeat;
+      }
+
+      private Factory()
+      {
+         this(true, "UTF-8", false);
+      }
+
+      public BaseURL createURL(ControllerMethod method)
+      {
+         count++;
+         FakeURL url = new FakeURL(plus, charset, repeat);
+         url.setParameter("op", method.getId());
+         return url;
+      }
+   }
+
+   private static ControllerMethod method(String... names)
+   {
+      List<ControllerParameter> parameters = new ArrayList<ControllerParameter>();
+      for (String name : names)
+      {
+         parameters.add(new ControllerParameter(name, Cardinality.SINGLE));
+      }
+      return new ControllerMethod("m", Phase.RENDER, URLTemplateTestCase.class, null, parameters);
+   }
+
+   public void testPlain() throws Exception
+   {
+      Factory factory = new Factory();
+      URLTemplate template = new URLTemplate(factory, method("a", "b"));
+      URLBuilder builder = template.builder().setParameter("b", "juu").setParameter("a", "foo bar");
+      assertEquals("http://localhost/portal?op=m&a=foo+bar&b=juu", builder.toString());
+      assertEquals("http://localhost/portal?op=m&amp;a=foo+bar&amp;b=juu", builder.escapeXML(true).toString());
+      assertEquals(1, factory.count);
+   }
+
+   public void testPercentEncodedSpace() throws Exception
+   {
+      Factory factory = new Factory(false, "UTF-8", false);
+      URLTemplate template = new URLTemplate(factory, method("a"));
+      assertEquals("http://localhost/portal?op=m&a=foo%20bar%2B", template.builder().setParameter("a", "foo bar+").toString());
+      assertEquals(1, factory.count);
+   }
+
+   public void testNonASCII() throws Exception
+   {
+      Factory factory = new Factory();
+      URLTemplate template = new URLTemplate(factory, method("a"));
+      assertEquals("http://localhost/portal?op=m&a=%C3%A9t%C3%A9", template.builder().setParameter("a", "\u00e9t\u00e9").toString());
+      assertEquals(1, factory.count);
+
+      // A container that does not encode as the template does is used directly
+      factory = new Factory(true, "ISO-8859-1", false);
+      template = new URLTemplate(factory, method("a"));
+      assertEquals("http://localhost/portal?op=m&a=%E9t%E9", template.builder().setParameter("a", "\u00e9t\u00e9").toString());
+      assertEquals(2, factory.count);
+   }
+
+   public void testMissingParameter() throws Exception
+   {
+      Factory factory = new Factory();
+      URLTemplate template = new URLTemplate(factory, method("a", "b"));
+      assertEquals("http://localhost/portal?op=m&a=foo", template.builder().setParameter("a", "foo").toString());
+      assertEquals(2, factory.count);
+   }
+
+   public void testMultiValuedParameter() throws Exception
+   {
+      Factory factory = new Factory();
+      URLTemplate template = new URLTemplate(factory, method("a"));
+      URLBuilder builder = template.builder().setParameter("a", new String[]{"foo", "bar"});
+      assertEquals("http://localhost/portal?op=m&a=foo&a=bar", builder.toString());
+      assertEquals(2, factory.count);
+
+      // A single value array uses the template
+      factory = new Factory();
+      template = new URLTemplate(factory, method("a"));
+      builder = template.builder().setParameter("a", new String[]{"foo"});
+      assertEquals("http://localhost/portal?op=m&a=foo", builder.toString());
+      assertEquals(1, factory.count);
+   }
+
+   public void testNonArgumentParameter() throws Exception
+   {
+      Factory factory = new Factory();
+      URLTemplate template = new URLTemplate(factory, method("a"));
+      URLBuilder builder = template.builder().setParameter("a", "foo").setParameter("c", "bar");
+      assertEquals("http://localhost/portal?op=m&a=foo&c=bar", builder.toString());
+      assertEquals("http://localhost/portal?op=m&amp;a=foo&amp;c=bar", builder.escapeXML(true).toString());
+      assertEquals(2, factory.count);
+   }
+
+   public void testZeroArguments() throws Exception
+   {
+      Factory factory = new Factory();
+      URLTemplate template = new URLTemplate(factory, method());
+      assertEquals("http://localhost/portal?op=m", template.builder().toString());
+      assertEquals("http://localhost/portal?op=m", template.builder().escapeXML(true).toString());
+      assertEquals(1, factory.count);
+   }
+
+   public void testRepeatedParameter() throws Exception
+   {
+      Factory factory = new Factory(true, "UTF-8", true);
+      URLTemplate template = new URLTemplate(factory, method("a"));
+      assertEquals(
+         "http://localhost/portal?op=m&a=foo#http://localhost/portal?op=m&a=foo",
+         template.builder().setParameter("a", "foo").toString());
+      assertEquals(2, factory.count);
+   }
+}
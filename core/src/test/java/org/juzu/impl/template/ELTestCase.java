@@ -19,11 +19,15 @@
 
 package org.juzu.impl.template;
 
+import org.juzu.impl.application.InternalApplicationContext;
 import org.juzu.test.AbstractInjectTestCase;
+import org.juzu.test.DIImplementation;
 import org.juzu.test.request.MockApplication;
 import org.juzu.test.request.MockClient;
 import org.juzu.test.request.MockRenderBridge;
 
+import java.lang.reflect.Field;
+
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ELTestCase extends AbstractInjectTestCase
 {
@@ -36,5 +40,54 @@ public class ELTestCase extends AbstractInjectTestCase
       MockClient client = app.client();
       MockRenderBridge render = client.render();
       assertEquals("A", render.getContent());
+
+      // Rendering again resolves the request scoped bean again
+      render = client.render();
+      assertEquals("A", render.getContent());
+   }
+
+   public void testResolveNonBean() throws Exception
+   {
+      MockApplication<?> app = application("template", "el").init();
+
+      // Resolving a name that is not a bean twice gives the same answer
+      assertNull(app.getContext().resolveBean("not_a_bean"));
+      assertNull(app.getContext().resolveBean("not_a_bean"));
+   }
+
+   public void testMemoizeBean() throws Exception
+   {
+      MockApplication<?> app = application("template", "el");
+      app.declareBean("template.el.B");
+      app.init();
+
+      // The dependent bean is created once although the template reads it three times
+      Field count = getLoader(app).loadClass("template.el.B").getField("count");
+      int before = count.getInt(null);
+      MockClient client = app.client();
+      MockRenderBridge render = client.render("memo");
+      assertEquals("BBB", render.getContent());
+      assertEquals(before + 1, count.getInt(null));
+   }
+
+   public void testResolveNonBeanThenBean() throws Exception
+   {
+      // CDI discovers all the classes of the application, so b is always a bean
+      if (getDI() != DIImplementation.CDI_WELD)
+      {
+         MockApplication<?> app = application("template", "el").init();
+         assertNull(app.getContext().resolveBean("b"));
+
+         // A new application context where b is a bean does not see the names remembered by the previous one
+         app = application("template", "el");
+         app.declareBean("template.el.B");
+         app.init();
+         assertNotNull(app.getContext().resolveBean("b"));
+      }
+   }
+
+   private ClassLoader getLoader(MockApplication<?> app)
+   {
+      return ((InternalApplicationContext)app.getContext()).getDescriptor().getApplicationLoader();
    }
 }
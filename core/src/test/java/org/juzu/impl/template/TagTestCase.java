@@ -19,7 +19,18 @@
 
 package org.juzu.impl.template;
 
+import org.juzu.impl.application.FragmentCache;
+import org.juzu.impl.application.InternalApplicationContext;
+import org.juzu.impl.model.resolver.ModelResolver;
+import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.impl.compiler.CompilationError;
+import org.juzu.impl.model.CompilationErrorCode;
 import org.juzu.impl.spi.template.gtmpl.GroovyTemplateEmitter;
+import org.juzu.impl.tags.DecorateTag;
+import org.juzu.impl.tags.IncludeTag;
+import org.juzu.impl.tags.InsertTag;
 import org.juzu.impl.template.compiler.EmitContext;
 import org.juzu.impl.template.compiler.EmitPhase;
 import org.juzu.impl.template.compiler.ProcessContext;
@@ -27,15 +38,23 @@ import org.juzu.impl.template.compiler.ProcessPhase;
 import org.juzu.impl.template.compiler.Template;
 import org.juzu.impl.utils.FQN;
 import org.juzu.metadata.TemplateDescriptor;
+import org.juzu.request.ApplicationContext;
+import org.juzu.template.TemplateExecutionException;
+import org.juzu.template.TemplateRenderContext;
 import org.juzu.test.AbstractInjectTestCase;
+import org.juzu.test.CompilerHelper;
 import org.juzu.test.DIImplementation;
 import org.juzu.test.request.MockApplication;
 import org.juzu.test.request.MockClient;
 import org.juzu.test.request.MockRenderBridge;
+import org.juzu.text.WriterPrinter;
 
+import java.io.StringWriter;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EmptyStackException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
@@ -89,6 +108,36 @@ public class TagTestCase extends AbstractInjectTestCase
       assertEquals("4", render.getTitle());
    }
 
+   public void testStaticTitle() throws Exception
+   {
+      MockApplication<?> app = application("template", "tag", "title").init();
+
+      // A static title is known before rendering, a dynamic title is not
+      ClassLoader loader = ((InternalApplicationContext)app.getContext()).getDescriptor().getApplicationLoader();
+      org.juzu.template.Template index = (org.juzu.template.Template)loader.
+         loadClass("template.tag.title.templates.index").
+         getConstructor(ApplicationContext.class).
+         newInstance(app.getContext());
+      assertEquals("the_title", index.getTitle());
+      org.juzu.template.Template dynamic = (org.juzu.template.Template)loader.
+         loadClass("template.tag.title.templates.dynamic").
+         getConstructor(ApplicationContext.class).
+         newInstance(app.getContext());
+      assertNull(dynamic.getTitle());
+
+      // A title that may not be rendered is not known before rendering
+      org.juzu.template.Template branch = (org.juzu.template.Template)loader.
+         loadClass("template.tag.title.templates.branch").
+         getConstructor(ApplicationContext.class).
+         newInstance(app.getContext());
+      assertNull(branch.getTitle());
+      org.juzu.template.Template scriptlet = (org.juzu.template.Template)loader.
+         loadClass("template.tag.title.templates.scriptlet").
+         getConstructor(ApplicationContext.class).
+         newInstance(app.getContext());
+      assertNull(scriptlet.getTitle());
+   }
+
    public void testParam() throws Exception
    {
       if (getDI() != DIImplementation.INJECT_GUICE)
@@ -103,6 +152,32 @@ public class TagTestCase extends AbstractInjectTestCase
       }
    }
    
+   public void testCache() throws Exception
+   {
+      MockApplication<?> app = application("template", "tag", "cache").init();
+      FragmentCache fragments = ((InternalApplicationContext)app.getContext()).getFragments();
+
+      // The body is rendered once and then replayed
+      MockClient client = app.client();
+      assertEquals("11", client.render().getContent());
+      assertEquals("12", client.render().getContent());
+      assertEquals(1, fragments.getSize());
+      assertEquals(1, fragments.getMissCount());
+      assertEquals(1, fragments.getHitCount());
+
+      // The same key in another template is another fragment
+      assertEquals("other3", client.render("other").getContent());
+      assertEquals(2, fragments.getSize());
+      assertEquals(2, fragments.getMissCount());
+   }
+
+   public void testCacheURL() throws Exception
+   {
+      List<CompilationError> errors = compiler("template", "tag", "cacheurl").failCompile();
+      assertEquals(1, errors.size());
+      assertEquals(CompilationErrorCode.TEMPLATE_CACHE_URL.toString(), errors.get(0).getCode());
+   }
+
    public void testRecompileTemplate() throws Exception
    {
       MockApplication<?> app = application("template", "tag", "decorate").init();
@@ -153,4 +228,148 @@ public class TagTestCase extends AbstractInjectTestCase
       EmitPhase emit = new EmitPhase(new EmitContext());
       emit.emit(new GroovyTemplateEmitter(), template.getAST());
    }
+
+   public void testInline() throws Exception
+   {
+      final HashMap<String, Template> templates = new HashMap<String, Template>();
+      ProcessPhase process = new ProcessPhase(new ProcessContext()
+      {
+         @Override
+         protected Template resolveTemplate(String originPath, String path)
+         {
+            String text;
+            if (path.equals("index.gtmpl"))
+            {
+               text = "#{decorate path=layout.gtmpl/}#{param name=foo/}${foo}#{include path=foo.gtmpl}#{/include}";
+            }
+            else if (path.equals("layout.gtmpl"))
+            {
+               text = "<div>#{insert/}</div>";
+            }
+            else if (path.equals("foo.gtmpl"))
+            {
+               text = "#{param name=foo/}${foo.toUpperCase()}";
+            }
+            else
+            {
+               return null;
+            }
+            try
+            {
+               String name = path.substring(0, path.indexOf('.'));
+               return new Template(path, ASTNode.Template.parse(text), new FQN("template.inline." + name), "gtmpl", path, System.currentTimeMillis());
+            }
+            catch (ParseException e)
+            {
+               throw failure(e);
+            }
+         }
+      }, templates);
+      Template index = process.resolveTemplate("index.gtmpl");
+      assertNotNull(index);
+
+      // Emit the template with the included and decorating templates inlined
+      GroovyTemplateEmitter emitter = new GroovyTemplateEmitter();
+      EmitPhase emit = new EmitPhase(new EmitContext()
+      {
+         @Override
+         public Template resolveTemplate(String path)
+         {
+            return templates.get(path);
+         }
+      });
+      emit.emit(emitter, index.getAST());
+      String script = emitter.toString();
+      assertEquals(-1, script.indexOf(DecorateTag.class.getName()));
+      assertEquals(-1, script.indexOf(IncludeTag.class.getName()));
+      assertEquals(-1, script.indexOf(InsertTag.class.getName()));
+
+      // No template is resolved when rendering
+      StringWriter out = new StringWriter();
+      TemplateRenderContext renderContext = new TemplateRenderContext(emitter.build("template.inline.index"), Collections.singletonMap("foo", "bar"));
+      renderContext.render(new WriterPrinter(out));
+      assertEquals("<div>barBAR</div>", out.toString());
+   }
+
+   public void testInlineLocation() throws Exception
+   {
+      final HashMap<String, Template> templates = new HashMap<String, Template>();
+      ProcessPhase process = new ProcessPhase(new ProcessContext()
+      {
+         @Override
+         protected Template resolveTemplate(String originPath, String path)
+         {
+            String text;
+            if (path.equals("index.gtmpl"))
+            {
+               text = "a\n#{include path=foo.gtmpl/}";
+            }
+            else if (path.equals("foo.gtmpl"))
+            {
+               text = "b\n\n<% throw new java.util.EmptyStackException(); %>";
+            }
+            else
+            {
+               return null;
+            }
+            try
+            {
+               String name = path.substring(0, path.indexOf('.'));
+               return new Template(path, ASTNode.Template.parse(text), new FQN("template.location." + name), "gtmpl", path, System.currentTimeMillis());
+            }
+            catch (ParseException e)
+            {
+               throw failure(e);
+            }
+         }
+      }, templates);
+      Template index = process.resolveTemplate("index.gtmpl");
+      GroovyTemplateEmitter emitter = new GroovyTemplateEmitter();
+      new EmitPhase(new EmitContext()
+      {
+         @Override
+         public Template resolveTemplate(String path)
+         {
+            return templates.get(path);
+         }
+      }).emit(emitter, index.getAST());
+
+      // The error is located in the inlined template
+      try
+      {
+         new TemplateRenderContext(emitter.build("template.location.index")).render(new WriterPrinter(new StringWriter()));
+         fail();
+      }
+      catch (TemplateExecutionException e)
+      {
+         assertTrue(e.getCause() instanceof EmptyStackException);
+         assertEquals("template.location.foo", e.getTemplateId());
+         assertEquals((Integer)3, e.getLineNumber());
+      }
+   }
+
+   public void testInlineApplication() throws Exception
+   {
+      RAMFileSystem sourcePath = new RAMFileSystem();
+      ReadFileSystem.copy(diskFS("template", "tag", "inline"), sourcePath);
+      RAMFileSystem output = new RAMFileSystem();
+      CompilerHelper<RAMPath, RAMPath> compiler = new CompilerHelper<RAMPath, RAMPath>(sourcePath, output);
+      compiler.processorOption(ModelResolver.TEMPLATE_INLINE_OPTION, "true").assertCompile();
+      MockApplication<?> app = compiler.application(getDI().bootstrap()).init();
+      assertEquals("<div>foo</div>", app.client().render().getContent());
+
+      // The included template is part of the index script
+      RAMPath script = output.getPath("template", "tag", "inline", "templates", "index.groovy");
+      assertEquals(-1, output.getContent(script).getCharSequence().toString().indexOf(IncludeTag.class.getName()));
+
+      // Modify the included template and compile again as the dev mode does, the index template is regenerated
+      waitForOneMillis();
+      sourcePath.getPath("template", "tag", "inline", "templates", "foo.gtmpl").update("bar");
+      output.getPath("template", "tag", "inline", "A.class").del();
+      output.getPath("template", "tag", "inline", "A_.class").del();
+      compiler = new CompilerHelper<RAMPath, RAMPath>(sourcePath, output);
+      compiler.processorOption(ModelResolver.TEMPLATE_INLINE_OPTION, "true").assertCompile();
+      app = compiler.application(getDI().bootstrap()).init();
+      assertEquals("<div>bar</div>", app.client().render().getContent());
+   }
 }
@@ -45,4 +45,16 @@ public class TemplateBuilderTestCase extends TestCase
       assertEquals("abc", out.toString());
    }
 
+   public void testSimpleExpression() throws Exception
+   {
+      GroovyTemplateEmitter generator = new GroovyTemplateEmitter();
+      new EmitPhase(new EmitContext()).emit(generator, ASTNode.Template.parse("<%=foo.bar%>"));
+      assertTrue(generator.toString().contains("out.printValue(foo.bar);"));
+
+      //
+      generator = new GroovyTemplateEmitter(false);
+      new EmitPhase(new EmitContext()).emit(generator, ASTNode.Template.parse("<%=foo.bar%>"));
+      assertTrue(generator.toString().contains("out.print(\"${foo.bar}\");"));
+   }
+
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.template;
+
+import org.juzu.impl.spi.fs.ram.RAMDir;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.template.TemplateProvider;
+import org.juzu.impl.spi.template.gtmpl.BytecodeClassLoader;
+import org.juzu.impl.spi.template.gtmpl.GroovyTemplateProvider;
+import org.juzu.impl.spi.template.gtmpl.GroovyTemplateStub;
+import org.juzu.impl.utils.Content;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.WriterPrinter;
+
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class TemplatePrecompileTestCase extends AbstractTemplateTestCase
+{
+
+   public void testRender() throws Exception
+   {
+      String script = template("a${'b'}<% out.print('c') %>d").getScript();
+      Map<String, byte[]> classes = new GroovyTemplateProvider().compile(script, null);
+      assertTrue(classes.containsKey(GroovyTemplateStub.SCRIPT_NAME));
+      assertTrue(classes.containsKey(GroovyTemplateStub.CONSTANTS_NAME));
+
+      // Store the bytecode like the processor does
+      RAMFileSystem fs = new RAMFileSystem();
+      RAMDir foo = fs.addDir(fs.getRoot(), "foo");
+      for (Map.Entry<String, byte[]> clazz : classes.entrySet())
+      {
+         String name = TemplateProvider.getBytecodeResourceName("index", clazz.getKey());
+         fs.setContent(fs.addFile(foo, name), new Content(System.currentTimeMillis(), clazz.getValue(), null));
+      }
+      final ClassLoader cl = new URLClassLoader(new URL[]{fs.getURL()}, getClass().getClassLoader());
+
+      //
+      GroovyTemplateStub stub = new GroovyTemplateStub("foo.index")
+      {
+         @Override
+         protected Class<?> loadScriptClass() throws Exception
+         {
+            BytecodeClassLoader loader = new BytecodeClassLoader(cl, templateId);
+            assertNotNull(loader.getBytecode(SCRIPT_NAME));
+            return loader.loadClass(SCRIPT_NAME);
+         }
+
+         @Override
+         public String getScript()
+         {
+            throw failure("Was not expecting the script to be compiled at runtime");
+         }
+      };
+      StringWriter out = new StringWriter();
+      new TemplateRenderContext(stub).render(new WriterPrinter(out));
+      assertEquals("abcd", out.toString());
+   }
+}
@@ -30,6 +30,8 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EmptyStackException;
 import java.util.HashMap;
@@ -165,6 +167,27 @@ public class TemplateRenderingTestCase extends AbstractTemplateTestCase
       assertEquals("bar", s);
    }
 
+   public void testSimpleExpression() throws Exception
+   {
+      Map<String, Object> context = new HashMap<String, Object>();
+      context.put("foo", "bar");
+      context.put("list", Arrays.asList(1, 2));
+      context.put("array", new String[]{"a", "b"});
+      context.put("map", Collections.singletonMap("a", "b"));
+      assertEquals("bar", render("${foo}", context));
+      assertEquals("bar", render("${ foo }", context));
+      assertEquals("b", render("${map.a}", context));
+      assertEquals("[1, 2]", render("${list}", context));
+      assertEquals("[a, b]", render("${array}", context));
+      assertEquals("[a:b]", render("${map}", context));
+      assertEquals("1", render("${1}"));
+      assertEquals("-1.5", render("${-1.5}"));
+      assertEquals("a", render("${'a'}"));
+      assertEquals("a", render("${\"a\"}"));
+      assertEquals("true", render("${true}"));
+      assertEquals("null", render("${null}"));
+   }
+
    public void testDollarInExpression() throws Exception
    {
       String template = "<%= \"$foo\" %>";
@@ -20,11 +20,19 @@
 package org.juzu.impl.template;
 
 import org.juzu.impl.compiler.Compiler;
+import org.juzu.impl.model.resolver.ModelResolver;
+import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.impl.spi.template.TemplateProvider;
+import org.juzu.impl.spi.template.gtmpl.BytecodeClassLoader;
+import org.juzu.impl.spi.template.gtmpl.GroovyTemplateStub;
 import org.juzu.test.AbstractInjectTestCase;
 import org.juzu.test.CompilerHelper;
 import org.juzu.test.DIImplementation;
 import org.juzu.test.request.MockApplication;
 import org.juzu.test.request.MockClient;
+import org.juzu.test.request.MockRenderBridge;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
    public class TemplateTestCase extends AbstractInjectTestCase
@@ -77,10 +85,44 @@ import org.juzu.test.request.MockClient;
       }
    }
 
+   public void testJava() throws Exception
+   {
+      // Does not work with Guice at the moment
+      if (getDI() != DIImplementation.INJECT_GUICE)
+      {
+         MockApplication<?> app = application("template", "jtmpl").init();
+         MockClient client = app.client();
+         MockRenderBridge render = client.render();
+         assertEquals("FOO_VALUEFOO_VALUE", render.getContent());
+         assertEquals("foo_value_${title}", render.getTitle());
+      }
+   }
+
    public void testUndeclaredIOE() throws Exception
    {
       MockApplication<?> app = application("template", "ioe").init();
       MockClient client = app.client();
       assertEquals("pass", client.render().getContent());
    }
+
+   public void testPrecompile() throws Exception
+   {
+      RAMFileSystem sourcePath = new RAMFileSystem();
+      ReadFileSystem.copy(diskFS("template", "precompile"), sourcePath);
+      RAMFileSystem output = new RAMFileSystem();
+      CompilerHelper<RAMPath, RAMPath> compiler = new CompilerHelper<RAMPath, RAMPath>(sourcePath, output);
+      compiler.processorOption(ModelResolver.TEMPLATE_PRECOMPILE_OPTION, "true").assertCompile();
+
+      // The script classes are stored next to the template script
+      assertNotNull(output.getPath("template", "precompile", "templates", TemplateProvider.getBytecodeResourceName("index", GroovyTemplateStub.SCRIPT_NAME)));
+      assertNotNull(output.getPath("template", "precompile", "templates", TemplateProvider.getBytecodeResourceName("index", GroovyTemplateStub.CONSTANTS_NAME)));
+      BytecodeClassLoader loader = new BytecodeClassLoader(compiler.getClassLoader(), "template.precompile.templates.index");
+      assertNotNull(loader.getBytecode(GroovyTemplateStub.SCRIPT_NAME));
+      assertSame(loader, loader.loadClass(GroovyTemplateStub.SCRIPT_NAME).getClassLoader());
+
+      // Without the script the template can only be rendered with the precompiled classes
+      output.getPath("template", "precompile", "templates", "index.groovy").del();
+      MockApplication<?> app = compiler.application(getDI().bootstrap()).init();
+      assertEquals("abcd", app.client().render().getContent());
+   }
 }
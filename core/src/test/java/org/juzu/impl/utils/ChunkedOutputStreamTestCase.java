@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.utils;
+
+import org.juzu.test.AbstractTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ChunkedOutputStreamTestCase extends AbstractTestCase
+{
+
+   private static class Counting extends ByteArrayOutputStream
+   {
+      int flushes;
+      @Override
+      public void flush() throws IOException
+      {
+         flushes++;
+      }
+   }
+
+   public void testFlushPerChunk() throws IOException
+   {
+      Counting out = new Counting();
+      ChunkedOutputStream chunked = new ChunkedOutputStream(out, 4);
+
+      //
+      chunked.write(new byte[]{'a', 'b', 'c'});
+      assertEquals(0, out.flushes);
+      chunked.write('d');
+      assertEquals(1, out.flushes);
+      chunked.write(new byte[]{'e', 'f', 'g', 'h', 'i'});
+      assertEquals(2, out.flushes);
+      chunked.write(new byte[]{'j', 'k', 'l'});
+      assertEquals(2, out.flushes);
+
+      //
+      chunked.flush();
+      assertEquals(3, out.flushes);
+      chunked.write(new byte[]{'m', 'n', 'o'});
+      assertEquals(3, out.flushes);
+      assertEquals("abcdefghijklmno", out.toString());
+   }
+
+   public void testInvalidChunkSize()
+   {
+      try
+      {
+         new ChunkedOutputStream(new ByteArrayOutputStream(), 0);
+         fail();
+      }
+      catch (IllegalArgumentException ignore)
+      {
+      }
+   }
+}
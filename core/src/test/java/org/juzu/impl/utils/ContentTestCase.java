@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.juzu.impl.utils;
+
+import org.juzu.test.AbstractTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ContentTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   public void testBytes() throws Exception
+   {
+      Content content = new Content(0, "\u00e9t\u00e9".getBytes(UTF_8), UTF_8);
+      assertEquals(5, content.getSize());
+      assertEquals("\u00e9t\u00e9", content.getCharSequence().toString());
+      assertEquals("\u00e9t\u00e9", content.getCharSequence().toString());
+      assertEquals("\u00e9t\u00e9", new String(Tools.bytes(content.getInputStream()), UTF_8));
+   }
+
+   public void testDirectBuffer() throws Exception
+   {
+      byte[] bytes = "\u00e9t\u00e9".getBytes(UTF_8);
+      ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+      buffer.put(bytes).flip();
+      Content content = new Content(0, buffer, UTF_8);
+      assertEquals(5, content.getSize());
+      assertEquals("\u00e9t\u00e9", content.getCharSequence().toString());
+      assertEquals("\u00e9t\u00e9", new String(Tools.bytes(content.getInputStream()), UTF_8));
+      assertEquals("\u00e9t\u00e9", new String(Tools.bytes(content.getInputStream()), UTF_8));
+   }
+
+   public void testSharedChars() throws Exception
+   {
+      Content content = new Content(0, "abc", UTF_8);
+      CharSequence chars = content.getCharSequence();
+      assertEquals("abc", chars);
+      assertSame(chars, content.getCharSequence());
+      assertEquals(3, content.getSize());
+   }
+
+   public void testReadFile() throws Exception
+   {
+      File f = File.createTempFile("content", ".txt");
+      f.deleteOnExit();
+      Tools.write("0123456789", f);
+      ByteBuffer buffer = Tools.bytes(f);
+      assertEquals(ByteBuffer.wrap("0123456789".getBytes()), buffer);
+      assertTrue(buffer.hasArray());
+   }
+
+   public void testReadStream() throws Exception
+   {
+      byte[] bytes = "0123456789".getBytes();
+      assertEquals("0123456789", new String(Tools.bytes(new ByteArrayInputStream(bytes), 10)));
+      assertEquals("0123456789", new String(Tools.bytes(new ByteArrayInputStream(bytes), 5)));
+      assertEquals("0123456789", new String(Tools.bytes(new ByteArrayInputStream(bytes), 20)));
+      assertEquals("0123456789", new String(Tools.bytes(new ByteArrayInputStream(bytes), -1)));
+   }
+}
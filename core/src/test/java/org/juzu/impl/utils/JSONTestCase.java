@@ -21,6 +21,7 @@ package org.juzu.impl.utils;
 
 import junit.framework.TestCase;
 
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -96,6 +97,58 @@ public class JSONTestCase extends TestCase
       assertEquals(123, JSON.parse("123"));
    }
 
+   public void testReadLargeNumber() throws Exception
+   {
+      assertEquals(12345678901L, JSON.parse("12345678901"));
+      assertEquals(-1.5, JSON.parse("-1.5"));
+   }
+
+   public void testReadNull() throws Exception
+   {
+      assertNull(JSON.parse("null"));
+   }
+
+   public void testReadUnicode() throws Exception
+   {
+      assertEquals("A", JSON.parse("\"\\u0041\""));
+   }
+
+   public void testReadNested() throws Exception
+   {
+      JSON o = (JSON)JSON.parse(" { \"a\" : [ 1 , { \"b\" : true } ] , \"c\" : { } } ");
+      assertEquals(Arrays.asList(1, new JSON().add("b", true)), o.getList("a"));
+      assertEquals(new JSON(), o.getJSON("c"));
+   }
+
+   public void testReadReader() throws Exception
+   {
+      JSON o = (JSON)JSON.parse(new StringReader("{\"a\":\"b\"}"));
+      assertEquals("b", o.getString("a"));
+   }
+
+   public void testReadMalformed() throws Exception
+   {
+      String[] malformeds = {"", "{", "{\"a\" 1}", "[1 2]", "\"abc", "tru", "{} {}"};
+      for (String malformed : malformeds)
+      {
+         try
+         {
+            JSON.parse(malformed);
+            fail("Was expecting " + malformed + " to fail");
+         }
+         catch (IllegalArgumentException ignore)
+         {
+         }
+      }
+   }
+
+   public void testRoundTrip() throws Exception
+   {
+      JSON json = new JSON().add("a", "\\\"\n").add("b", Arrays.asList("c", 3)).add("d", new JSON().add("e", false));
+      assertEquals(json, JSON.parse(json.toString()));
+      assertEquals(json, JSON.parse(json.toString(new StringBuilder(), 2).toString()));
+   }
+
    public void testWriteNumber() throws Exception
    {
       assertEquals("0", JSON.toString(0, new StringBuilder()).toString());
@@ -98,6 +98,12 @@ public class CompilerHelper<I, O>
       return this;
    }
 
+   public CompilerHelper<I, O> processorOption(String name, String value)
+   {
+      builder.processorOption(name, value);
+      return this;
+   }
+
    public CompilerHelper<I, O> addClassPath(ReadFileSystem<?> classPath)
    {
       builder.addClassPath(classPath);
@@ -30,6 +30,7 @@ import org.juzu.request.ApplicationContext;
 import org.juzu.impl.application.ApplicationBootstrap;
 import org.juzu.impl.spi.fs.ReadFileSystem;
 import org.juzu.impl.spi.fs.disk.DiskFileSystem;
+import org.juzu.impl.spi.fs.jar.JarFileSystem;
 import org.juzu.test.AbstractTestCase;
 
 import java.io.File;
@@ -41,6 +42,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.jar.JarFile;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class MockApplication<P>
@@ -97,7 +99,8 @@ public class MockApplication<P>
       ApplicationDescriptor descriptor = (ApplicationDescriptor)field.get(null);
 
       //
-      DiskFileSystem libs = new DiskFileSystem(new File(ApplicationBootstrap.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+      File location = new File(ApplicationBootstrap.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+      ReadFileSystem<?> libs = location.isFile() ? new JarFileSystem(new JarFile(location)) : new DiskFileSystem(location);
 
       //
       bootstrap.addFileSystem(classes);
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.text;
+
+import org.juzu.test.AbstractTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class OutputStreamPrinterTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   /** . */
+   private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+   public void testCharArray() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      new CharArray.Simple("aé€").write(baos);
+      assertEquals(6, baos.size());
+      assertEquals("aé€", baos.toString("UTF-8"));
+   }
+
+   public void testUTF8() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(baos, UTF_8, 16);
+      printer.write("<p>été ");
+      printer.write(new CharArray.Simple("€"));
+      printer.write(' ');
+      printer.write(new StringBuilder("a text longer than the buffer size"));
+      printer.flush();
+      assertEquals("<p>été € a text longer than the buffer size", baos.toString("UTF-8"));
+   }
+
+   public void testEncoding() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(baos, ISO_8859_1);
+      printer.write(new CharArray.Simple("été"));
+      printer.write('ü');
+      printer.flush();
+      assertEquals(4, baos.size());
+      assertEquals("étéü", baos.toString("ISO-8859-1"));
+   }
+
+   public void testSurrogatePair() throws Exception
+   {
+      String clef = new String(Character.toChars(0x1D11E));
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(baos, UTF_8);
+      printer.write(clef.charAt(0));
+      printer.write(clef.charAt(1));
+      printer.write(clef.charAt(0));
+      printer.write(clef.substring(1) + "a");
+      printer.flush();
+      assertEquals(clef + clef + "a", baos.toString("UTF-8"));
+   }
+
+   public void testTrailingHighSurrogate() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(baos, UTF_8);
+      printer.write('a');
+      printer.write('\uD83D');
+      printer.flush();
+      assertEquals("a?", baos.toString("UTF-8"));
+   }
+}
@@ -37,6 +37,10 @@ public class A
    @Path("index.gtmpl")
    Template index;
 
+   @Inject
+   @Path("memo.gtmpl")
+   Template memo;
+
    String value;
 
    public String getValue()
@@ -50,4 +54,10 @@ public class A
       value = "A";
       index.render();
    }
+
+   @View(id = "memo")
+   public void memo()
+   {
+      memo.render();
+   }
 }
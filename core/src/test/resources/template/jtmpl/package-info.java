@@ -0,0 +1,4 @@
+@Application
+package template.jtmpl;
+
+import org.juzu.Application;
\ No newline at end of file
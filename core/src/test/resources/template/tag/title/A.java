@@ -38,6 +38,14 @@ public class A
    @Inject
    Template dynamic;
 
+   @Path("branch.gtmpl")
+   @Inject
+   Template branch;
+
+   @Path("scriptlet.gtmpl")
+   @Inject
+   Template scriptlet;
+
    @View
    public void index()
    {